@@ -0,0 +1,141 @@
+package com.cas.benchmarks;
+
+import com.cas.core.CompiledExpression;
+import com.cas.core.Equation;
+import com.cas.core.Expression;
+import com.cas.core.ExpressionProgram;
+import com.cas.core.Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmarks of the symbolic side: parsing, simplifying, differentiating and
+ * evaluating one point, and the cost of lowering or compiling an expression
+ * before evaluating it. Parsing, simplifying and differentiating are cached,
+ * the cold benchmarks clear the caches before every call and the warm ones
+ * measure the steady state the GUI sees when the same functions are entered again
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoreBenchmark {
+
+    @Param({"small", "medium", "deep", "sum", "powers"})
+    public String expression;
+
+    private String text; // the expression to parse
+    private Equation equation; // the parsed expression
+    private Expression root; // the root of the equation
+    private HashMap<Character, Double> point; // values of x and y
+    private double[] frame; // values of x and y, by slot
+    private double[] stack; // work array of the program
+    private CompiledExpression compiled; // the equation in bytecode
+
+    @Setup
+    public void setup() {
+        text = Corpus.expression(expression);
+        equation = new Equation(text, new HashSet<>());
+        root = Parser.parseExpression(text, new HashSet<>());
+
+        point = new HashMap<>();
+        point.put('x', 0.7);
+        point.put('y', -1.3);
+        frame = new double[equation.getLayout().size()];
+        frame[equation.getLayout().slotOf('x')] = 0.7;
+        frame[equation.getLayout().slotOf('y')] = -1.3;
+        stack = new double[equation.getWorkSize()];
+        compiled = equation.compile();
+    }
+
+    /**
+     * empties the parse, simplify and derivative caches before every call
+     */
+    @State(Scope.Thread)
+    public static class Cold {
+        @Setup(Level.Invocation)
+        public void clear() {
+            Parser.getParseCache().clear();
+            Expression.getSimplifyCache().clear();
+            Equation.getDerivativeCache().clear();
+        }
+    }
+
+    @Benchmark
+    public Expression parseCold(Cold cold) {
+        return Parser.parseExpression(text, new HashSet<>());
+    }
+
+    @Benchmark
+    public Expression parseWarm() {
+        return Parser.parseExpression(text, new HashSet<>());
+    }
+
+    @Benchmark
+    public Equation simplifyCold(Cold cold) {
+        return equation.simplified();
+    }
+
+    @Benchmark
+    public Equation simplifyWarm() {
+        return equation.simplified();
+    }
+
+    @Benchmark
+    public Equation derivativeCold(Cold cold) {
+        return equation.derivative('x');
+    }
+
+    @Benchmark
+    public Equation derivativeWarm() {
+        return equation.derivative('x');
+    }
+
+    @Benchmark
+    public double evaluateTree() {
+        return root.evaluate(point);
+    }
+
+    @Benchmark
+    public double evaluateFrame() {
+        return equation.valueAt(frame);
+    }
+
+    @Benchmark
+    public double evaluateProgram() {
+        return equation.valueAt(frame, stack);
+    }
+
+    @Benchmark
+    public double evaluateCompiled() {
+        return compiled.eval(frame);
+    }
+
+    @Benchmark
+    public ExpressionProgram lower() {
+        return root.lower(equation.getLayout());
+    }
+
+    @Benchmark
+    public CompiledExpression compile() {
+        return root.compile(equation.getLayout());
+    }
+}
@@ -0,0 +1,68 @@
+package com.cas.benchmarks;
+
+/**
+ * the expressions the benchmarks run on, from small ones typed by hand to
+ * pathological generated ones. All of them depend on x and y
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+public final class Corpus {
+
+    private static final int DEPTH = 40; // nesting depth of the deep expression
+    private static final int TERMS = 400; // terms of the long sum
+    private static final int POWERS = 12; // nested powers
+
+    private Corpus() {
+    }
+
+    /**
+     * @param name - small, medium, deep, sum or powers
+     * @return the expression with the given name
+     */
+    public static String expression(String name) {
+        switch (name) {
+            case "small":
+                return "x^2+3*x*y-1";
+            case "medium":
+                return "sin(x)*cos(y)+e^(-x^2/4)*ln(x^2+y^2+1)-sqrt(abs(x*y))/(1+x^2)";
+            case "deep":
+                return deep();
+            case "sum":
+                return sum();
+            case "powers":
+                return powers();
+            default:
+                throw new IllegalArgumentException("Unknown expression: " + name);
+        }
+    }
+
+    /**
+     * @return sin(cos(sin(...(x+y)...))) with alternating functions and sums
+     */
+    private static String deep() {
+        String exp = "x+y";
+        for (int i = 0; i < DEPTH; i++)
+            exp = (i % 2 == 0 ? "sin(" : "cos(") + exp + ")+" + (i % 3 == 0 ? "x" : "y");
+        return exp;
+    }
+
+    /**
+     * @return sin(1*x+y)/1+sin(2*x+y)/2+...
+     */
+    private static String sum() {
+        StringBuilder exp = new StringBuilder("0");
+        for (int i = 1; i <= TERMS; i++)
+            exp.append("+sin(").append(i).append("*x+y)/").append(i);
+        return exp.toString();
+    }
+
+    /**
+     * @return ((((x^2+y^2+1)^1.5+1)^1.5+1)^1.5...
+     */
+    private static String powers() {
+        String exp = "x^2+y^2";
+        for (int i = 0; i < POWERS; i++)
+            exp = "(" + exp + "+1)^1.5";
+        return exp;
+    }
+}
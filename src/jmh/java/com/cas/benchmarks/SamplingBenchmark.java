@@ -0,0 +1,97 @@
+package com.cas.benchmarks;
+
+import com.cas.core.Equation;
+import com.cas.rendering.plots.Curve;
+import com.cas.rendering.plots.CurveSampler;
+import com.cas.rendering.plots.Surface;
+import com.cas.rendering.plots.SurfaceSampler;
+import com.cas.rendering.util.Grid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.FloatBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmarks of the sampling done every frame by the curves and surfaces, at
+ * the resolution of the plots. The samplers put the vertices in a heap buffer
+ * so no window or GL context is needed. Curves keep their samples while the
+ * view does not change and only evaluate the new ones when it is dragged, so
+ * they are measured with a fixed, a dragged and a zoomed view
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SamplingBenchmark {
+
+    @Param({"small", "medium", "deep", "sum", "powers"})
+    public String expression;
+
+    private final Grid grid = new Grid(-10, 10, -10, 10, -10, 10); // fixed view
+    private final Grid moving = new Grid(-10, 10, -10, 10, -10, 10); // dragged or zoomed view
+    private double zoom = 1; // scroll of the next zoom, alternates between in and out
+    private final HashMap<Character, Double> parameters = new HashMap<>(); // y is a parameter of the curves
+    private final HashMap<Character, Double> noParameters = new HashMap<>(); // the surfaces have none
+
+    private CurveSampler curve;
+    private SurfaceSampler surface;
+    private FloatBuffer curveBuffer, surfaceBuffer;
+
+    @Setup
+    public void setup() {
+        Equation equation = new Equation(Corpus.expression(expression), new HashSet<>());
+        parameters.put('y', 0.5);
+
+        curve = new CurveSampler(equation, Curve.MAX_RESOLUTION);
+        surface = new SurfaceSampler(equation, Surface.MAX_RESOLUTION);
+        curveBuffer = FloatBuffer.allocate(curve.getFloatCount());
+        surfaceBuffer = FloatBuffer.allocate(surface.getFloatCount());
+    }
+
+    @Benchmark
+    public FloatBuffer curve() {
+        curveBuffer.clear();
+        curve.sample(grid, parameters, curveBuffer);
+        return curveBuffer;
+    }
+
+    @Benchmark
+    public FloatBuffer curveDrag() {
+        moving.drag(1, 0);
+        curveBuffer.clear();
+        curve.sample(moving, parameters, curveBuffer);
+        return curveBuffer;
+    }
+
+    @Benchmark
+    public FloatBuffer curveZoom() {
+        zoom = -zoom;
+        moving.zoom(zoom);
+        curveBuffer.clear();
+        curve.sample(moving, parameters, curveBuffer);
+        return curveBuffer;
+    }
+
+    @Benchmark
+    public FloatBuffer surface() {
+        surfaceBuffer.clear();
+        surface.sample(grid, noParameters, surfaceBuffer);
+        return surfaceBuffer;
+    }
+}
@@ -0,0 +1,83 @@
+package com.cas.core;
+
+/**
+ * the element by element loops used by batch evaluation for the most
+ * expensive operations. The default kernels are plain loops calling FastMath,
+ * when the JVM runs with the incubating Vector API (--add-modules
+ * jdk.incubator.vector) the SIMD kernels are used instead. Every kernel stores
+ * its results in the first array it is given
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+interface BatchKernels {
+
+    BatchKernels INSTANCE = load(); // the kernels used by all the nodes
+
+    /**
+     * result[i] = result[i] + in[i]
+     */
+    void add(double[] result, double[] in, int n);
+
+    /**
+     * result[i] = result[i] * in[i]
+     */
+    void multiply(double[] result, double[] in, int n);
+
+    /**
+     * result[i] = result[i] / in[i]
+     */
+    void divide(double[] result, double[] in, int n);
+
+    /**
+     * bases[i] = bases[i] ^ exponent
+     */
+    void pow(double[] bases, double exponent, int n);
+
+    /**
+     * exponents[i] = base ^ exponents[i]
+     */
+    void pow(double base, double[] exponents, int n);
+
+    /**
+     * bases[i] = bases[i] ^ exponents[i]
+     */
+    void pow(double[] bases, double[] exponents, int n);
+
+    /**
+     * values[i] = ln(values[i])
+     */
+    void log(double[] values, int n);
+
+    /**
+     * values[i] = sin(values[i])
+     */
+    void sin(double[] values, int n);
+
+    /**
+     * values[i] = cos(values[i])
+     */
+    void cos(double[] values, int n);
+
+    /**
+     * values[i] = tan(values[i])
+     */
+    void tan(double[] values, int n);
+
+    /**
+     * pick the SIMD kernels if the Vector API module is present, they can be
+     * turned off with -Dcas.vector=false
+     *
+     * @return the kernels to use
+     */
+    private static BatchKernels load() {
+        boolean vectorModule = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        if (vectorModule && Boolean.parseBoolean(System.getProperty("cas.vector", "true"))) {
+            try {
+                return (BatchKernels) Class.forName("com.cas.core.VectorKernels").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                System.err.println("Vector kernels unavailable, using scalar kernels: " + e);
+            }
+        }
+        return new ScalarKernels();
+    }
+}
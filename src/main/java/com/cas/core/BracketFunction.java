@@ -20,7 +20,7 @@ public abstract class BracketFunction extends FixedInputFunction {
     /**
      * constructor for different open and close brackets
      */
-    public BracketFunction(ExpressionType type, Expression expr, char open, char closed) {
+    protected BracketFunction(ExpressionType type, Expression expr, char open, char closed) {
         super(type, expr);
         this.open = open;
         this.closed = closed;
@@ -29,7 +29,7 @@ public abstract class BracketFunction extends FixedInputFunction {
     /**
      * constructor for similar open and close brackets
      */
-    public BracketFunction(ExpressionType type, Expression expr, char bracket) {
+    protected BracketFunction(ExpressionType type, Expression expr, char bracket) {
         this(type, expr, bracket, bracket);
     }
 
@@ -38,6 +38,23 @@ public abstract class BracketFunction extends FixedInputFunction {
         return compute(expr.evaluate(varValues));
     }
 
+    @Override
+    public double evaluate(double[] frame, VariableLayout layout) {
+        return compute(expr.evaluate(frame, layout));
+    }
+
+    @Override
+    public void evaluateBatch(double[][] columns, int n, double[] out, VariableLayout layout) {
+        expr.evaluateBatch(columns, n, out, layout);
+        for (int i = 0; i < n; i++)
+            out[i] = compute(out[i]);
+    }
+
+    @Override
+    public Interval evaluateInterval(IntervalFrame frame) {
+        return compute(expr.evaluateInterval(frame));
+    }
+
     @Override
     public String toString() {
         return type + "(" + expr + ")";
@@ -53,19 +70,9 @@ public abstract class BracketFunction extends FixedInputFunction {
         return open + expr.toLatex() + closed;
     }
 
-    @Override
-    public boolean equals(Expression e) {
-        if (e instanceof BracketFunction) {
-            BracketFunction func = (BracketFunction) e;
-            if (open == func.open && closed == func.closed)
-                return expr.equals(func.expr);
-        }
-        return false;
-    }
-
     @Override
     public Expression differentiate(char var) {
-        return new Constant(0d);
+        return Constant.of(0d);
     }
 
     /**
@@ -78,7 +85,7 @@ public abstract class BracketFunction extends FixedInputFunction {
     protected Constant evaluate() {
         if (expr instanceof Constant) {
             Constant c = (Constant) expr;
-            return new Constant(compute(c.getValue()));
+            return Constant.of(compute(c.getValue()));
         }
         return null;
     }
@@ -91,23 +98,38 @@ public abstract class BracketFunction extends FixedInputFunction {
      */
     protected abstract double compute(double in);
 
+    /**
+     * @param in - bounds of the input to the function
+     * @return bounds of the values returned by the mathematical function
+     */
+    protected abstract Interval compute(Interval in);
+
     /**
      * the floor function
      */
     public static final class Floor extends BracketFunction {
-        public Floor(Expression expr) {
+        private Floor(Expression expr) {
             super(ExpressionType.FLOOR, expr, '\u230A', '\u230B');
         }
 
+        public static Floor of(Expression expr) {
+            return ExpressionTable.intern(new Floor(expr));
+        }
+
         @Override
         protected double compute(double in) {
             return FastMath.floor(in);
         }
 
         @Override
-        public Expression simplify() {
+        protected Interval compute(Interval in) {
+            return Interval.floor(in);
+        }
+
+        @Override
+        protected Expression computeSimplified() {
             Constant eval = evaluate();
-            return eval == null ? new Floor(expr.simplify()) : eval;
+            return eval == null ? Floor.of(expr.simplify()) : eval;
         }
     }
 
@@ -115,19 +137,28 @@ public abstract class BracketFunction extends FixedInputFunction {
      * the ceiling function
      */
     public static final class Ceiling extends BracketFunction {
-        public Ceiling(Expression expr) {
+        private Ceiling(Expression expr) {
             super(ExpressionType.CEILING, expr, '\u2308', '\u2309');
         }
 
+        public static Ceiling of(Expression expr) {
+            return ExpressionTable.intern(new Ceiling(expr));
+        }
+
         @Override
         protected double compute(double in) {
             return FastMath.ceil(in);
         }
 
         @Override
-        public Expression simplify() {
+        protected Interval compute(Interval in) {
+            return Interval.ceil(in);
+        }
+
+        @Override
+        protected Expression computeSimplified() {
             Constant eval = evaluate();
-            return eval == null ? new Ceiling(expr.simplify()) : eval;
+            return eval == null ? Ceiling.of(expr.simplify()) : eval;
         }
     }
 
@@ -135,27 +166,36 @@ public abstract class BracketFunction extends FixedInputFunction {
      * the absolute value function
      */
     public static final class Abs extends BracketFunction {
-        public Abs(Expression expr) {
+        private Abs(Expression expr) {
             super(ExpressionType.ABSOLUTE_VALUE, expr, '|');
         }
 
+        public static Abs of(Expression expr) {
+            return ExpressionTable.intern(new Abs(expr));
+        }
+
         @Override
         protected double compute(double in) {
             return FastMath.abs(in);
         }
 
+        @Override
+        protected Interval compute(Interval in) {
+            return Interval.abs(in);
+        }
+
         @Override
         public Expression differentiate(char var) {
             return Product.create( // f/abs(f) * f'
-                    new Fraction(expr, this), // f/abs(f)
+                    Fraction.of(expr, this), // f/abs(f)
                     expr.differentiate(var) // f'
             ); // end f/abs(f) * f'
         }
 
         @Override
-        public Expression simplify() {
+        protected Expression computeSimplified() {
             Constant eval = evaluate();
-            return eval == null ? new Abs(expr.simplify()) : eval;
+            return eval == null ? Abs.of(expr.simplify()) : eval;
         }
     }
 }
\ No newline at end of file
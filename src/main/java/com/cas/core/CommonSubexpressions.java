@@ -0,0 +1,52 @@
+package com.cas.core;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * common subexpression elimination. Nodes are interned, so an expression is
+ * already a DAG where every repeated subexpression is the same object; this
+ * pass finds the nodes that are reached more than once. The evaluators compute
+ * such a node the first time it is reached, keep the value and reuse it every
+ * other time instead of walking the subtree again. Derivatives repeat their
+ * inputs a lot (the product rule copies every factor in every term) so this
+ * saves most of the work for second and third derivatives
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+final class CommonSubexpressions {
+
+    private CommonSubexpressions() {
+    }
+
+    /**
+     * find the nodes that are inputs of more than one node of the expression,
+     * leaves are left out since loading them is as cheap as reusing them
+     *
+     * @param root - the expression
+     * @return the shared nodes, compared by identity
+     */
+    static Set<Expression> shared(Expression root) {
+        IdentityHashMap<Expression, Integer> uses = new IdentityHashMap<>();
+        count(root, uses);
+
+        Set<Expression> shared = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Map.Entry<Expression, Integer> entry : uses.entrySet())
+            if (entry.getValue() > 1 && entry.getKey().inputs().length > 0)
+                shared.add(entry.getKey());
+        return shared;
+    }
+
+    /**
+     * count the uses of every node, the inputs of a node are only visited the
+     * first time the node is reached
+     */
+    private static void count(Expression e, IdentityHashMap<Expression, Integer> uses) {
+        if (uses.merge(e, 1, Integer::sum) > 1)
+            return;
+        for (Expression input : e.inputs())
+            count(input, uses);
+    }
+}
@@ -0,0 +1,19 @@
+package com.cas.core;
+
+/**
+ * an expression that has been compiled into JVM bytecode. The values of the
+ * variables are passed in a primitive array, in the order given when the
+ * expression was compiled, so no boxing or map lookups happen per evaluation
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+public interface CompiledExpression {
+
+    /**
+     * calculate the value of the compiled expression
+     *
+     * @param vars - the values of the variables, indexed by their slot
+     * @return the value of the expression
+     */
+    double eval(double[] vars);
+}
@@ -2,6 +2,7 @@ package com.cas.core;
 
 import net.jafama.FastMath;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
 /**
@@ -12,17 +13,27 @@ import java.util.HashMap;
  */
 public final class Constant extends Expression {
 
-    public static final Constant PI = new Constant(3.141592653589793d); // PI constant
-    public static final Constant EXP = new Constant(2.718281828459045d); // Euler's number
-    public static final Constant GOLDEN_RATIO = new Constant(1.618033988749895d); // phi constant
+    public static final Constant PI = of(3.141592653589793d); // PI constant
+    public static final Constant EXP = of(2.718281828459045d); // Euler's number
+    public static final Constant GOLDEN_RATIO = of(1.618033988749895d); // phi constant
 
     private final double value; // the value of the constant
 
-    public Constant(double val) {
-        super(ExpressionType.CONSTANT);
+    private Constant(double val) {
+        super(ExpressionType.CONSTANT, Double.hashCode(val));
         value = val;
     }
 
+    /**
+     * @param value - the value of the constant
+     * @return the constant node with the given value, -0 is stored as 0
+     */
+    public static Constant of(double value) {
+        if (value == 0d)
+            value = 0d; // -0 == 0, so both are the same node
+        return ExpressionTable.intern(new Constant(value));
+    }
+
     /**
      * @return the value of the constant
      */
@@ -35,6 +46,21 @@ public final class Constant extends Expression {
         return value;
     }
 
+    @Override
+    public double evaluate(double[] frame, VariableLayout layout) {
+        return value;
+    }
+
+    @Override
+    public void evaluateBatch(double[][] columns, int n, double[] out, VariableLayout layout) {
+        Arrays.fill(out, 0, n, value);
+    }
+
+    @Override
+    public Interval evaluateInterval(IntervalFrame frame) {
+        return Interval.of(value);
+    }
+
     @Override
     public String toString() {
         return toFancyString();
@@ -71,19 +97,22 @@ public final class Constant extends Expression {
     }
 
     @Override
-    public boolean equals(Expression e) {
-        if (e instanceof Constant)
-            return value == (((Constant) e).value);
-        return false;
+    Expression[] inputs() {
+        return NO_INPUTS;
+    }
+
+    @Override
+    protected boolean sameInputs(Expression e) {
+        return Double.doubleToLongBits(value) == Double.doubleToLongBits(((Constant) e).value);
     }
 
     @Override
     public Expression differentiate(char var) {
-        return new Constant(0d);
+        return Constant.of(0d);
     }
 
     @Override
-    public Expression simplify() {
+    protected Expression computeSimplified() {
         return this;
     }
 }
\ No newline at end of file
@@ -1,30 +1,66 @@
 package com.cas.core;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.stream.IntStream;
 
 /**
  * This is a wrapper class for an expression. It contains all the methods we
  * would need to access outside the data structure package
+ * <p>
+ * An equation is immutable once built, and so are its expressions. The
+ * evaluation methods keep no state between calls: the values of the variables
+ * come from the map, frame or columns given by the caller and the work arrays
+ * belong to the calling thread. One equation can be evaluated by any number of
+ * threads at once, as long as each thread passes its own frames and columns,
+ * or maps that are not modified while they are read.
  *
  * @author Abd-El-Aziz Zayed
  */
 public class Equation implements IMath {
 
+    private static final int SAMPLES_PER_TASK = 4096; // samples evaluated in one batch by {@link #sample}
+    private static final LruCache<DerivativeKey, FutureTask<Equation>> DERIVATIVES = new LruCache<>(1024); // memo of derivative()
+
     private final Expression root;
     private final HashSet<Character> variables;
+    private final VariableLayout layout; // slots of the variables for frame evaluation
+    private ExpressionProgram program; // flat form of the root, lowered on first use, immutable so it can be shared without locking
+    private CompiledExpression compiled; // bytecode of the root, compiled on first use, stateless so it can be shared
 
+    /**
+     * constructor with the root expression
+     *
+     * @param root      - the expression
+     * @param variables - the variables of the equation, null to use the free
+     *                  variables of the root
+     */
     public Equation(Expression root, HashSet<Character> variables) {
         this.root = root;
-        this.variables = variables;
+        this.variables = variables == null ? variablesOf(root) : variables;
+        layout = new VariableLayout(this.variables);
     }
 
     public Equation(String exp, HashSet<Character> variables) {
-        exp = Parser.clean(exp);
         System.out.println("parsed");
         root = Parser.parseExpression(exp, variables);
         System.out.println("generated: " + root.toFancyString());
         this.variables = variables;
+        layout = new VariableLayout(variables);
+    }
+
+    /**
+     * @return the free variables of the expression
+     */
+    private static HashSet<Character> variablesOf(Expression root) {
+        HashSet<Character> variables = new HashSet<>();
+        for (char var : root.getVariables())
+            variables.add(var);
+        return variables;
     }
 
     /**
@@ -34,6 +70,13 @@ public class Equation implements IMath {
         return variables;
     }
 
+    /**
+     * @return the slot of each variable in the frames given to this equation
+     */
+    public VariableLayout getLayout() {
+        return layout;
+    }
+
     /**
      * get the value of the expression with the given values for the variables
      *
@@ -44,6 +87,172 @@ public class Equation implements IMath {
         return root.evaluate(varValues);
     }
 
+    /**
+     * get the value of the expression with the given values for the variables,
+     * this does not allocate anything. Walks the tree, so a subexpression used
+     * more than once is computed every time, see
+     * {@link #valueAt(double[], double[])} to compute it once
+     *
+     * @param frame - values of each variable, at the slots given by the layout
+     * @return the value of the expression at the given values
+     */
+    public double valueAt(double[] frame) {
+        return root.evaluate(frame, layout);
+    }
+
+    /**
+     * get the value of the expression with the given values for the variables,
+     * runs the flat program of the expression instead of walking the tree, with a
+     * work array owned by the caller so nothing is allocated once the program is
+     * lowered
+     *
+     * @param frame - values of each variable, at the slots given by the layout
+     * @param stack - work array of at least {@link #getWorkSize()} elements, only
+     *              used by one thread at a time
+     * @return the value of the expression at the given values
+     */
+    public double valueAt(double[] frame, double[] stack) {
+        return lower().evaluate(frame, stack);
+    }
+
+    /**
+     * @return the size of the work array of {@link #valueAt(double[], double[])}
+     */
+    public int getWorkSize() {
+        return lower().getWorkSize();
+    }
+
+    /**
+     * get the values of the expression for a whole batch of samples at once, much
+     * faster than evaluating the samples one by one. Runs the flat program of the
+     * expression so shared subexpressions are only computed once per sample
+     *
+     * @param columns - values of each variable, columns[slot][i] is the value of
+     *                the variable at that slot for the i-th sample
+     * @param n       - number of samples
+     * @param out     - array to store the n values in
+     */
+    public void valuesAt(double[][] columns, int n, double[] out) {
+        lower().evaluateBatch(columns, n, out);
+    }
+
+    /**
+     * sample the expression at n evenly spaced values of its only variable, from
+     * min to max inclusive. The samples are evaluated in batches on the common
+     * fork join pool
+     *
+     * @param min - the first value of the variable
+     * @param max - the last value of the variable
+     * @param n   - number of samples
+     * @return the values of the expression at the samples
+     */
+    public double[] sample(double min, double max, int n) {
+        if (layout.size() > 1)
+            throw new IllegalArgumentException("The values of " + variables + " must be given to sample the equation");
+        char var = layout.size() == 1 ? layout.symbolAt(0) : 'x';
+        return sample(var, min, max, n, new HashMap<>());
+    }
+
+    /**
+     * sample the expression at n evenly spaced values of a variable, from min to
+     * max inclusive, the other variables keep the given values. The samples are
+     * evaluated in batches on the common fork join pool
+     *
+     * @param var       - the variable to sample along
+     * @param min       - the first value of the variable
+     * @param max       - the last value of the variable
+     * @param n         - number of samples
+     * @param varValues - values of the other variables, only read
+     * @return the values of the expression at the samples
+     */
+    public double[] sample(char var, double min, double max, int n, HashMap<Character, Double> varValues) {
+        if (n < 0)
+            throw new IllegalArgumentException("Number of samples must not be negative: " + n);
+
+        double[] fixed = new double[layout.size()];
+        for (int slot = 0; slot < fixed.length; slot++) {
+            char symbol = layout.symbolAt(slot);
+            if (symbol == var)
+                continue;
+            Double value = varValues.get(symbol);
+            if (value == null)
+                throw new IllegalArgumentException("No value for variable " + symbol);
+            fixed[slot] = value;
+        }
+
+        ExpressionProgram program = lower();
+        int varSlot = layout.slotOf(var);
+        double step = n > 1 ? (max - min) / (n - 1) : 0d;
+        double[] out = new double[n];
+        int tasks = (n + SAMPLES_PER_TASK - 1) / SAMPLES_PER_TASK;
+
+        IntStream.range(0, tasks).parallel().forEach(t -> {
+            int from = t * SAMPLES_PER_TASK;
+            int count = Math.min(SAMPLES_PER_TASK, n - from);
+
+            double[][] columns = new double[fixed.length][count]; // own columns, the tasks run at once
+            for (int slot = 0; slot < fixed.length; slot++) {
+                if (slot == varSlot) {
+                    for (int i = 0; i < count; i++)
+                        columns[slot][i] = min + (from + i) * step;
+                    if (from + count == n && n > 1)
+                        columns[slot][count - 1] = max; // exactly max, whatever the rounding of the steps
+                } else
+                    Arrays.fill(columns[slot], fixed[slot]);
+            }
+
+            double[] values = tasks == 1 ? out : new double[count];
+            program.evaluateBatch(columns, count, values);
+            if (values != out)
+                System.arraycopy(values, 0, out, from, count);
+        });
+        return out;
+    }
+
+    /**
+     * get guaranteed bounds of the values of the expression when the variables
+     * range over intervals, like the values of a curve over a part of the screen
+     *
+     * @param frame - interval of each variable, its layout must be the layout of
+     *              this equation or hold all its variables
+     * @return an interval holding all the defined values of the expression
+     */
+    public Interval valuesIn(IntervalFrame frame) {
+        return root.evaluateInterval(frame);
+    }
+
+    /**
+     * compile the expression of this equation for fast repeated evaluation, the
+     * compiled expression takes frames that follow the layout of this equation.
+     * It is only compiled once
+     *
+     * @return the compiled expression
+     */
+    public CompiledExpression compile() {
+        CompiledExpression c = compiled;
+        if (c == null) { // racing threads compile equivalent classes, one is kept
+            c = root.compile(layout);
+            compiled = c;
+        }
+        return c;
+    }
+
+    /**
+     * lower the expression of this equation into a flat postfix program, the
+     * program takes frames that follow the layout of this equation. It is only
+     * lowered once
+     *
+     * @return the program computing the expression
+     */
+    public ExpressionProgram lower() {
+        ExpressionProgram lowered = program;
+        if (lowered == null) { // racing threads lower the same immutable program
+            lowered = root.lower(layout);
+            program = lowered;
+        }
+        return lowered;
+    }
+
     @Override
     public String toLatex() {
         return root.toLatex();
@@ -60,37 +269,110 @@ public class Equation implements IMath {
     }
 
     /**
-     * compute a full simplification of this expression
+     * compute a full simplification of this expression. Simplifies until the
+     * expression stops changing, or until it comes back to a form it already had,
+     * since some expressions go back and forth between equivalent forms
      *
      * @return a fully simplified version of the root expression
+     * @throws CancellationException if the thread is interrupted
      */
     public Equation simplified() {
         Expression simplified = root;
-        Expression previous;
+        HashSet<Expression> seen = new HashSet<>();
 
-        do {
-            previous = simplified;
+        while (seen.add(simplified)) {
+            if (Thread.currentThread().isInterrupted())
+                throw new CancellationException("Simplification interrupted");
             simplified = simplified.simplify();
-        } while (!simplified.equals(previous));
+        }
         simplified = simplified.simplify();
 
-        HashSet<Character> vars = new HashSet<>();
-        String simple = simplified.toString();
-        simple = Parser.clean(simple);
-//		System.out.println(simple);
-        Parser.parseExpression(simple, vars); // quick and dirty way to get the variables
-
-        return new Equation(simplified, vars);
+        return new Equation(simplified, null);
     }
 
     /**
-     * compute a fully simplified version of the derivative of this equation
+     * compute a fully simplified version of the derivative of this equation. The
+     * derivatives are memoized by expression and variable, and a thread asking
+     * for a derivative another thread is computing waits for it instead of
+     * computing it again. If that other thread is interrupted the waiting one
+     * computes the derivative itself
      *
      * @param var - variable we wish to differentiate with respect to
      * @return a fully simplified version of the derivative of this equation
      */
     public Equation derivative(char var) {
+        DerivativeKey key = new DerivativeKey(root, var);
+        while (true) {
+            FutureTask<Equation> task = DERIVATIVES.get(key);
+            if (task == null) {
+                FutureTask<Equation> created = new FutureTask<>(() -> computeDerivative(var));
+                task = DERIVATIVES.putIfAbsent(key, created);
+                if (task == null) { // this thread computes it
+                    task = created;
+                    task.run();
+                }
+            }
+
+            try {
+                return task.get();
+            } catch (ExecutionException e) { // like the derivative of a mod, rethrown to every caller
+                Throwable cause = e.getCause();
+                if (cause instanceof CancellationException) { // interrupted, not a property of the derivative
+                    DERIVATIVES.remove(key, task);
+                    if (!Thread.currentThread().isInterrupted())
+                        continue; // the thread computing it was interrupted, not this one
+                }
+                if (cause instanceof RuntimeException)
+                    throw (RuntimeException) cause;
+                if (cause instanceof Error)
+                    throw (Error) cause;
+                throw new IllegalStateException(cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a derivative", e);
+            }
+        }
+    }
+
+    private Equation computeDerivative(char var) {
+        if (!root.dependsOn(var))
+            return new Equation(Constant.of(0), null);
         Equation derivative = new Equation(root.differentiate(var), null);
         return derivative.simplified();
     }
-}
\ No newline at end of file
+
+    /**
+     * @return the memo table of {@link #derivative(char)}, to read its counters
+     * or clear it
+     */
+    public static LruCache<DerivativeKey, FutureTask<Equation>> getDerivativeCache() {
+        return DERIVATIVES;
+    }
+
+    /**
+     * key of a memoized derivative: the expression and the variable
+     */
+    public static final class DerivativeKey {
+
+        private final Expression root;
+        private final char var;
+
+        private DerivativeKey(Expression root, char var) {
+            this.root = root;
+            this.var = var;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof DerivativeKey))
+                return false;
+            DerivativeKey other = (DerivativeKey) o;
+            return var == other.var && root.equals(other.root);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * root.hashCode() + var;
+        }
+    }
+}
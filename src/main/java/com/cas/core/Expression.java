@@ -1,24 +1,39 @@
 package com.cas.core;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
 /**
  * class for an arbitrary mathematical expression. All mathematical expression
  * classes are subclasses of this class.
+ * <p>
+ * Expressions are immutable and hash-consed: nodes are only created through
+ * the static factories of each class (like {@link Constant#of(double)}), which
+ * return the existing node if an equal one is already in use. Two equal trees
+ * are then always the same object, so comparing them is an identity check and
+ * common subtrees share memory.
  *
  * @author Abd-El-Aziz Zayed
  */
 public abstract class Expression implements IMath {
 
-    protected ExpressionType type; // the type of math expression / function, ex: log, exponential, trig
+    static final Expression[] NO_INPUTS = new Expression[0]; // inputs of the leaves
+    static final char[] NO_VARIABLES = new char[0]; // free variables of the constants
+    private static final LruCache<Expression, Expression> SIMPLIFIED = new LruCache<>(1 << 14); // memo of simplify()
+
+    protected final ExpressionType type; // the type of math expression / function, ex: log, exponential, trig
+    private final int hash; // structural hash, built from the hashes of the inputs
+    private char[] variables; // sorted free variables, set when the node is interned
 
     /**
      * constructor with expression type
      *
-     * @param type - type of expression
+     * @param type       - type of expression
+     * @param inputsHash - hash of the attributes and inputs of the node
      */
-    public Expression(ExpressionType type) {
+    protected Expression(ExpressionType type, int inputsHash) {
         this.type = type;
+        hash = 31 * type.ordinal() + inputsHash;
     }
 
     public ExpressionType getType() {
@@ -33,15 +48,160 @@ public abstract class Expression implements IMath {
      */
     public abstract double evaluate(HashMap<Character, Double> varValues);
 
+    /**
+     * calculate the value of the mathematical expression without boxing, the
+     * values of the variables are read from the frame at their slot
+     *
+     * @param frame  - the values of the variables, indexed by slot
+     * @param layout - the slot of each variable in the frame
+     * @return the value of the expression
+     */
+    public abstract double evaluate(double[] frame, VariableLayout layout);
+
+    /**
+     * calculate the value of the mathematical expression for a whole batch of
+     * samples at once. Every node computes the full column of its values before
+     * handing it to its parent, so the tree is only walked once per batch
+     *
+     * @param columns - the values of the variables, columns[slot][i] is the value
+     *                of the variable at that slot for the i-th sample
+     * @param n       - number of samples
+     * @param out     - array to store the n values of the expression in
+     * @param layout  - the slot of each variable in the columns
+     */
+    public abstract void evaluateBatch(double[][] columns, int n, double[] out, VariableLayout layout);
+
+    /**
+     * bound the values of the mathematical expression when every variable ranges
+     * over an interval. The bounds are guaranteed: every value evaluate gives for
+     * variables in their intervals is inside the result, undefined values aside,
+     * but they may be wider than the actual range of the values
+     *
+     * @param frame - the interval of each variable
+     * @return an interval holding all the defined values of the expression
+     */
+    public abstract Interval evaluateInterval(IntervalFrame frame);
+
     /**
      * check if a given expression is equal to the current, this simply checks if
      * both trees are the same in memory and does not check if they are
      * mathematically equivalent. Mathematical equivalence is a whole other story.
+     * Since nodes are interned, this is an identity check
      *
      * @param e - given expression to check equality with
      * @return true if the expressions are equal, false otherwise
      */
-    public abstract boolean equals(Expression e);
+    public final boolean equals(Expression e) {
+        return this == e;
+    }
+
+    /**
+     * structural equality used by the intern table, it only looks at this node
+     * since its inputs are already interned
+     */
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof Expression))
+            return false;
+        Expression e = (Expression) o;
+        return hash == e.hash && getClass() == e.getClass() && sameInputs(e);
+    }
+
+    @Override
+    public final int hashCode() {
+        return hash;
+    }
+
+    /**
+     * compare the attributes and the inputs of this node with the ones of a node
+     * of the same class. Inputs are interned so they are compared by identity
+     *
+     * @param e - node of the same class as this one
+     * @return true if both nodes have the same attributes and inputs
+     */
+    protected abstract boolean sameInputs(Expression e);
+
+    /**
+     * @return the direct inputs of this node, the array must not be modified
+     */
+    abstract Expression[] inputs();
+
+    /**
+     * find the free variables of this node from the ones of its inputs, called
+     * once by the intern table when the node becomes canonical
+     */
+    final void findVariables() {
+        variables = collectVariables();
+    }
+
+    /**
+     * @return the sorted free variables of this node, the union of the ones of
+     * its inputs
+     */
+    char[] collectVariables() {
+        char[] union = NO_VARIABLES;
+        for (Expression input : inputs())
+            union = union(union, input.variables);
+        return union;
+    }
+
+    /**
+     * @return the sorted variables in either array, one of the arrays itself if
+     * it already holds all of them
+     */
+    private static char[] union(char[] a, char[] b) {
+        char[] merged = new char[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                merged[k++] = a[i++];
+                j++;
+            } else if (a[i] < b[j])
+                merged[k++] = a[i++];
+            else
+                merged[k++] = b[j++];
+        }
+        while (i < a.length)
+            merged[k++] = a[i++];
+        while (j < b.length)
+            merged[k++] = b[j++];
+
+        if (k == a.length)
+            return a;
+        if (k == b.length)
+            return b;
+        return Arrays.copyOf(merged, k);
+    }
+
+    /**
+     * @return the free variables of the expression in alphabetical order, the
+     * array is shared and must not be modified
+     */
+    public final char[] getVariables() {
+        return variables;
+    }
+
+    /**
+     * @param var - a variable
+     * @return true if the variable appears in the expression
+     */
+    public final boolean dependsOn(char var) {
+        return Arrays.binarySearch(variables, var) >= 0;
+    }
+
+    /**
+     * @return true if both arrays hold the same nodes in the same order
+     */
+    protected static boolean identical(Expression[] a, Expression[] b) {
+        if (a.length != b.length)
+            return false;
+        for (int i = 0; i < a.length; i++)
+            if (a[i] != b[i])
+                return false;
+        return true;
+    }
 
     /**
      * differentiate the expression with respect to the given variable
@@ -52,7 +212,57 @@ public abstract class Expression implements IMath {
     public abstract Expression differentiate(char var);
 
     /**
+     * simplify the expression one step. Nodes are immutable and interned, so the
+     * result only depends on the node itself; it is kept in a bounded memo
+     * table and simplifying the same subtree again (on the next pass of
+     * {@link Equation#simplified()}, in a derivative or in an edited function)
+     * is a lookup
+     *
      * @return a simplified version of the first expression, but equivalent
      */
-    public abstract Expression simplify();
+    public final Expression simplify() {
+        if (this instanceof Constant || this instanceof Variable)
+            return this; // leaves are already simple, keep them out of the table
+        return SIMPLIFIED.get(this, Expression::computeSimplified);
+    }
+
+    /**
+     * compute the simplification of this node, only called by
+     * {@link #simplify()} when the result is not in the memo table
+     *
+     * @return a simplified version of the first expression, but equivalent
+     */
+    protected abstract Expression computeSimplified();
+
+    /**
+     * @return the memo table of {@link #simplify()}, to read its counters or
+     * clear it
+     */
+    public static LruCache<Expression, Expression> getSimplifyCache() {
+        return SIMPLIFIED;
+    }
+
+    /**
+     * compile the expression into JVM bytecode, much faster than evaluate when
+     * the expression is evaluated many times like when plotting
+     *
+     * @param layout - the slot of each variable in the frame given to the
+     *               compiled expression
+     * @return the compiled expression
+     */
+    public CompiledExpression compile(VariableLayout layout) {
+        return ExpressionCompiler.compile(this, layout);
+    }
+
+    /**
+     * lower the expression into a flat postfix program, cheaper to build than a
+     * compiled expression and faster to evaluate than the tree
+     *
+     * @param layout - the slot of each variable in the frame given to the
+     *               program
+     * @return the program computing this expression
+     */
+    public ExpressionProgram lower(VariableLayout layout) {
+        return ExpressionProgram.lower(this, layout);
+    }
 }
\ No newline at end of file
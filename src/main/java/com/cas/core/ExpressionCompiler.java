@@ -0,0 +1,479 @@
+package com.cas.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compiles an expression tree into a hidden JVM class implementing
+ * {@link CompiledExpression}. The tree is walked once and every node is
+ * emitted as straight-line bytecode: constants are inlined with ldc2_w,
+ * variables are loaded from the frame array and functions are direct
+ * invokestatic calls to FastMath. The JVM evaluates doubles on an operand
+ * stack, so the postfix order of the tree maps directly onto the bytecode and
+ * no branches are needed (which also means no stack map frames are needed).
+ * Shared subexpressions are computed once and kept in local variables.
+ * <p>
+ * On JDK 15 and later the class is a hidden class, unloaded once its
+ * expression is not used anymore. Hidden classes are looked up reflectively
+ * so the compiler still runs on JDK 9, where the class is defined as a normal
+ * class of this package and stays loaded.
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+final class ExpressionCompiler {
+
+    private static final String CLASS_NAME = "com/cas/core/GeneratedExpression";
+    private static final String INTERFACE_NAME = "com/cas/core/CompiledExpression";
+    private static final String FAST_MATH = "net/jafama/FastMath";
+    private static final String MATH = "java/lang/Math";
+    private static final String UNARY = "(D)D";
+    private static final String BINARY = "(DD)D";
+
+    private static final AtomicInteger DEFINED = new AtomicInteger(); // number of normal classes defined, for their names
+    private static final MethodHandle DEFINE_HIDDEN = findDefineHidden(); // Lookup.defineHiddenClass, null before JDK 15
+
+    private static final int MAX_CODE_LENGTH = 65535; // JVM limit on the size of a method
+    private static final int MAX_LOCALS = 65535; // JVM limit on the local variables of a method
+
+    /*
+     * opcodes used by the compiler
+     */
+    private static final int ICONST_0 = 0x03, BIPUSH = 0x10, SIPUSH = 0x11;
+    private static final int DCONST_0 = 0x0e, DCONST_1 = 0x0f, LDC2_W = 0x14;
+    private static final int ALOAD_0 = 0x2a, ALOAD_1 = 0x2b, DALOAD = 0x31;
+    private static final int DLOAD = 0x18, DSTORE = 0x39, DUP2 = 0x5c, WIDE = 0xc4;
+    private static final int DADD = 0x63, DMUL = 0x6b, DDIV = 0x6f, DREM = 0x73;
+    private static final int RETURN = 0xb1, DRETURN = 0xaf;
+    private static final int INVOKESPECIAL = 0xb7, INVOKESTATIC = 0xb8;
+
+    private final ConstantPool pool = new ConstantPool();
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+    private final VariableLayout layout; // slot of each variable
+    private final Set<Expression> shared; // nodes to compute only once
+    private final IdentityHashMap<Expression, Integer> locals = new IdentityHashMap<>(); // local of each shared node computed so far
+    private int stack, maxStack; // operand stack depth in slots
+    private int maxLocals = 2; // this and the frame, then one double (2 slots) per shared node
+
+    private ExpressionCompiler(VariableLayout layout, Set<Expression> shared) {
+        this.layout = layout;
+        this.shared = shared;
+    }
+
+    /**
+     * compile the given expression into a new class. If the expression is
+     * too big to fit in a single JVM method, its lowered program is returned
+     * instead so callers never have to deal with both cases
+     *
+     * @param root      - the expression to compile
+     * @param layout - the slot of each variable
+     * @return the compiled expression
+     */
+    static CompiledExpression compile(Expression root, VariableLayout layout) {
+        ExpressionCompiler compiler = new ExpressionCompiler(layout, CommonSubexpressions.shared(root));
+        compiler.emit(root);
+        compiler.op(DRETURN);
+
+        if (compiler.code.size() > MAX_CODE_LENGTH || compiler.maxLocals > MAX_LOCALS)
+            return ExpressionProgram.lower(root, layout);
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Class<?> compiled;
+            if (DEFINE_HIDDEN != null)
+                compiled = ((MethodHandles.Lookup) DEFINE_HIDDEN.invoke(lookup, compiler.toClassFile(CLASS_NAME), true)).lookupClass();
+            else
+                compiled = lookup.defineClass(compiler.toClassFile(CLASS_NAME + DEFINED.incrementAndGet()));
+            return (CompiledExpression) lookup.findConstructor(compiled, MethodType.methodType(void.class)).invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not compile expression: " + root, e);
+        }
+    }
+
+    /**
+     * @return a handle on Lookup.defineHiddenClass without any option, null if
+     * the JVM has no hidden classes
+     */
+    private static MethodHandle findDefineHidden() {
+        try {
+            Object noOptions = Array.newInstance(Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption"), 0);
+            MethodType type = MethodType.methodType(MethodHandles.Lookup.class, byte[].class, boolean.class, noOptions.getClass());
+            MethodHandle define = MethodHandles.publicLookup().findVirtual(MethodHandles.Lookup.class, "defineHiddenClass", type);
+            return MethodHandles.insertArguments(define.asFixedArity(), 3, noOptions);
+        } catch (ReflectiveOperationException e) {
+            return null; // before JDK 15
+        }
+    }
+
+    /**
+     * emit the bytecode that leaves the value of the given expression on top of
+     * the operand stack
+     *
+     * @param e - expression to emit
+     */
+    private void emit(Expression e) {
+        Integer local = locals.get(e);
+        if (local != null) { // already computed
+            local(DLOAD, local);
+            push(2);
+            return;
+        }
+
+        emitNode(e);
+        if (shared.contains(e)) { // keep a copy in a new local
+            local = maxLocals;
+            maxLocals += 2;
+            locals.put(e, local);
+            op(DUP2);
+            push(2);
+            local(DSTORE, local);
+            pop(2);
+        }
+    }
+
+    private void emitNode(Expression e) {
+        switch (e.getType()) {
+            case CONSTANT:
+                constant(((Constant) e).getValue());
+                break;
+            case VARIABLE:
+                variable(((Variable) e).getSymbol());
+                break;
+            case SUM:
+            case PRODUCT: {
+                Operator op = (Operator) e;
+                int instruction = e.getType() == ExpressionType.SUM ? DADD : DMUL;
+                emit(op.children[0]);
+                for (int i = 1; i < op.children.length; i++) {
+                    emit(op.children[i]);
+                    binary(instruction);
+                }
+                break;
+            }
+            case FRACTION: {
+                Fraction frac = (Fraction) e;
+                emit(frac.numerator);
+                emit(frac.denominator);
+                binary(DDIV);
+                break;
+            }
+            case POWER: {
+                Power pow = (Power) e;
+                emit(pow.expr);
+                emit(pow.power);
+                call(FAST_MATH, "pow", BINARY);
+                break;
+            }
+            case LOGARITHM: { // ln(f) / ln(b)
+                Log log = (Log) e;
+                emit(log.expr);
+                call(FAST_MATH, "log", UNARY);
+                emit(log.base);
+                call(FAST_MATH, "log", UNARY);
+                binary(DDIV);
+                break;
+            }
+            case MODULUS: {
+                Mod mod = (Mod) e;
+                emit(mod.expr);
+                emit(mod.divisor);
+                binary(DREM);
+                break;
+            }
+            case SIGN:
+                unary(e, "signum");
+                break;
+            case ABSOLUTE_VALUE:
+                unary(e, "abs");
+                break;
+            case FLOOR:
+                unary(e, "floor");
+                break;
+            case CEILING:
+                unary(e, "ceil");
+                break;
+            case SIN:
+                unary(e, "sin");
+                break;
+            case COS:
+                unary(e, "cos");
+                break;
+            case TAN:
+                unary(e, "tan");
+                break;
+            case CSC:
+                reciprocal(e, "sin");
+                break;
+            case SEC:
+                reciprocal(e, "cos");
+                break;
+            case COT:
+                reciprocal(e, "tan");
+                break;
+            case ARCSIN:
+                unary(e, "asin");
+                break;
+            case ARCCOS:
+                unary(e, "acos");
+                break;
+            case ARCTAN:
+                unary(e, "atan");
+                break;
+            case MAX:
+            case MIN: {
+                ManyInputFunction func = (ManyInputFunction) e;
+                String name = e.getType() == ExpressionType.MAX ? "max" : "min";
+                emit(func.children[0]);
+                for (int i = 1; i < func.children.length; i++) {
+                    emit(func.children[i]);
+                    call(MATH, name, BINARY);
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Cannot compile expression of type " + e.getType());
+        }
+    }
+
+    /**
+     * emit a single input FastMath function applied to the input of the node
+     */
+    private void unary(Expression e, String function) {
+        emit(((FixedInputFunction) e).expr);
+        call(FAST_MATH, function, UNARY);
+    }
+
+    /**
+     * emit 1 / f(x) where f is a single input FastMath function, used for the
+     * reciprocal trig functions
+     */
+    private void reciprocal(Expression e, String function) {
+        op(DCONST_1);
+        push(2);
+        unary(e, function);
+        binary(DDIV);
+    }
+
+    private void constant(double value) {
+        if (Double.doubleToRawLongBits(value) == 0L)
+            op(DCONST_0);
+        else if (value == 1d)
+            op(DCONST_1);
+        else
+            op(LDC2_W, pool.doubleConstant(value));
+        push(2);
+    }
+
+    private void variable(char symbol) {
+        int slot = layout.slotOf(symbol);
+        if (slot < 0)
+            throw new IllegalArgumentException("No slot was given for variable " + symbol);
+
+        op(ALOAD_1);
+        push(1);
+        if (slot <= 5) {
+            op(ICONST_0 + slot);
+        } else if (slot <= Byte.MAX_VALUE) {
+            op(BIPUSH);
+            code.write(slot);
+        } else {
+            op(SIPUSH, slot);
+        }
+        push(1);
+        op(DALOAD);
+        pop(2);
+        push(2);
+    }
+
+    /**
+     * emit an instruction that pops two doubles and pushes one
+     */
+    private void binary(int instruction) {
+        op(instruction);
+        pop(2);
+    }
+
+    /**
+     * emit a static call to a function of doubles returning a double
+     */
+    private void call(String owner, String name, String descriptor) {
+        op(INVOKESTATIC, pool.method(owner, name, descriptor));
+        pop(descriptor.equals(BINARY) ? 4 : 2);
+        push(2);
+    }
+
+    private void op(int opcode) {
+        code.write(opcode);
+    }
+
+    /**
+     * emit a load or store of a local variable
+     */
+    private void local(int opcode, int index) {
+        if (index <= 0xff) {
+            op(opcode);
+            code.write(index);
+        } else {
+            op(WIDE);
+            op(opcode, index);
+        }
+    }
+
+    private void op(int opcode, int operand) {
+        code.write(opcode);
+        code.write(operand >>> 8);
+        code.write(operand);
+    }
+
+    private void push(int slots) {
+        stack += slots;
+        maxStack = Math.max(maxStack, stack);
+    }
+
+    private void pop(int slots) {
+        stack -= slots;
+    }
+
+    /**
+     * @param name - internal name of the class
+     * @return the bytes of the class file holding the compiled expression
+     */
+    private byte[] toClassFile(String name) throws IOException {
+        int thisClass = pool.classRef(name);
+        int superClass = pool.classRef("java/lang/Object");
+        int interfaceClass = pool.classRef(INTERFACE_NAME);
+        int objectInit = pool.method("java/lang/Object", "<init>", "()V");
+        int init = pool.utf8("<init>");
+        int initDescriptor = pool.utf8("()V");
+        int eval = pool.utf8("eval");
+        int evalDescriptor = pool.utf8("([D)D");
+        int codeAttribute = pool.utf8("Code");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0); // minor version
+        out.writeShort(52); // major version, no stack map frames needed
+        pool.write(out);
+        out.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(1);
+        out.writeShort(interfaceClass);
+        out.writeShort(0); // no fields
+        out.writeShort(2); // constructor and eval
+
+        byte[] initCode = {(byte) ALOAD_0, (byte) INVOKESPECIAL, (byte) (objectInit >>> 8), (byte) objectInit, (byte) RETURN};
+        writeMethod(out, init, initDescriptor, codeAttribute, 1, 1, initCode);
+        writeMethod(out, eval, evalDescriptor, codeAttribute, maxStack, maxLocals, code.toByteArray());
+
+        out.writeShort(0); // no class attributes
+        return bytes.toByteArray();
+    }
+
+    private static void writeMethod(DataOutputStream out, int name, int descriptor, int codeAttribute,
+                                    int maxStack, int maxLocals, byte[] code) throws IOException {
+        out.writeShort(0x0001); // public
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1); // a single Code attribute
+        out.writeShort(codeAttribute);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // no exception table
+        out.writeShort(0); // no code attributes
+    }
+
+    /**
+     * the constant pool of the generated class, entries are shared when they are
+     * requested more than once
+     */
+    private static final class ConstantPool {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final HashMap<String, Integer> entries = new HashMap<>();
+        private int count = 1; // index 0 is reserved by the JVM
+
+        int utf8(String value) {
+            return entry("U" + value, 1, () -> {
+                out.writeByte(1);
+                out.writeUTF(value);
+            });
+        }
+
+        int classRef(String name) {
+            int utf8 = utf8(name);
+            return entry("C" + name, 1, () -> {
+                out.writeByte(7);
+                out.writeShort(utf8);
+            });
+        }
+
+        int method(String owner, String name, String descriptor) {
+            int owned = classRef(owner);
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            int nameAndType = entry("N" + name + descriptor, 1, () -> {
+                out.writeByte(12);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+            });
+            return entry("M" + owner + "." + name + descriptor, 1, () -> {
+                out.writeByte(10);
+                out.writeShort(owned);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        int doubleConstant(double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            return entry("D" + bits, 2, () -> {
+                out.writeByte(6);
+                out.writeLong(bits);
+            });
+        }
+
+        /**
+         * add an entry to the pool if it does not exist already
+         *
+         * @param key    - unique key of the entry
+         * @param size   - number of indices used by the entry
+         * @param writer - writes the bytes of the entry
+         * @return the index of the entry
+         */
+        private int entry(String key, int size, EntryWriter writer) {
+            Integer index = entries.get(key);
+            if (index != null)
+                return index;
+            try {
+                writer.write();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            entries.put(key, count);
+            count += size;
+            return count - size;
+        }
+
+        void write(DataOutputStream dest) throws IOException {
+            dest.writeShort(count);
+            dest.write(bytes.toByteArray());
+        }
+    }
+
+    private interface EntryWriter {
+        void write() throws IOException;
+    }
+}
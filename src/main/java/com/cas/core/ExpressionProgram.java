@@ -0,0 +1,643 @@
+package com.cas.core;
+
+import net.jafama.FastMath;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * an expression lowered into a flat postfix program. The tree is replaced by
+ * three arrays: the instructions, the constants they refer to and the slots of
+ * the variables (stored as operands of the instructions). Evaluating is a
+ * single loop over the instructions with a small stack of doubles, so there is
+ * no recursion, no pointer chasing through the children of the nodes and no
+ * virtual calls. The top of the stack is kept in a local variable and
+ * binary operations with a constant or variable input are fused into one
+ * instruction, which keeps the number of dispatches low. A program is also
+ * much smaller than the tree it comes from, which matters for the big trees
+ * made by differentiation.
+ * <p>
+ * Subexpressions used more than once (see {@link CommonSubexpressions}) are
+ * computed once: the first time their value is stored in a register and every
+ * other use loads it back. The same program can also be run on whole columns
+ * of samples with {@link #evaluateBatch(double[][], int, double[])}
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+public final class ExpressionProgram implements CompiledExpression {
+
+    /*
+     * the instructions, CONST and LOAD are followed by one operand: the index of
+     * the constant and the slot of the variable. The others pop their inputs
+     * from the stack and push their result
+     */
+    static final int CONST = 0, LOAD = 1;
+    static final int ADD = 2, MUL = 3, DIV = 4, REM = 5, POW = 6, MIN = 7, MAX = 8;
+    static final int LN = 9, SIN = 10, COS = 11, TAN = 12, ASIN = 13, ACOS = 14, ATAN = 15;
+    static final int SIGN = 16, ABS = 17, FLOOR = 18, CEIL = 19, INVERT = 20;
+
+    /*
+     * binary instructions fused with the CONST or LOAD of their right input, they
+     * have the same operand. Leaves are very common so this removes about a third
+     * of the instructions to dispatch
+     */
+    static final int ADD_CONST = 21, MUL_CONST = 22, DIV_CONST = 23, POW_CONST = 24;
+    static final int ADD_LOAD = 25, MUL_LOAD = 26, DIV_LOAD = 27, POW_LOAD = 28;
+    static final int CONST_POW = 29; // constant base raised to the top of the stack, like 2^x
+
+    /*
+     * shared subexpressions, followed by the index of the register. STORE copies
+     * the top of the stack into the register, RECALL pushes the register
+     */
+    static final int STORE = 30, RECALL = 31;
+
+    private final int[] code; // the instructions and their operands
+    private final double[] constants; // the constant pool
+    private final int maxStack; // deepest the stack gets while evaluating
+    private final int registers; // number of shared subexpressions
+
+    private ExpressionProgram(int[] code, double[] constants, int maxStack, int registers) {
+        this.code = code;
+        this.constants = constants;
+        this.maxStack = maxStack;
+        this.registers = registers;
+    }
+
+    /**
+     * lower the given expression into a program
+     *
+     * @param root   - the expression to lower
+     * @param layout - the slot of each variable
+     * @return the program computing the expression
+     */
+    static ExpressionProgram lower(Expression root, VariableLayout layout) {
+        Lowering lowering = new Lowering(layout, CommonSubexpressions.shared(root));
+        lowering.emit(root);
+        return new ExpressionProgram(Arrays.copyOf(lowering.code, lowering.length),
+                Arrays.copyOf(lowering.constants, lowering.constantCount), lowering.maxStack, lowering.registers.size());
+    }
+
+    @Override
+    public double eval(double[] vars) {
+        return evaluate(vars, new double[getWorkSize()]);
+    }
+
+    /**
+     * calculate the value of the program with a work array given by the caller,
+     * so nothing is allocated
+     *
+     * @param vars  - the values of the variables, indexed by their slot
+     * @param stack - work array of at least {@link #getWorkSize()} elements, holds
+     *              the stack followed by the registers
+     * @return the value of the expression
+     */
+    public double evaluate(double[] vars, double[] stack) {
+        final int[] code = this.code;
+        final int registerStart = maxStack;
+        double top = 0d; // the value on top of the stack is kept out of the array
+        int sp = -1; // index of the value under the top
+        int pc = 0;
+        while (pc < code.length) {
+            switch (code[pc++]) {
+                case CONST:
+                    stack[++sp] = top;
+                    top = constants[code[pc++]];
+                    break;
+                case LOAD:
+                    stack[++sp] = top;
+                    top = vars[code[pc++]];
+                    break;
+                case ADD:
+                    top = stack[sp--] + top;
+                    break;
+                case MUL:
+                    top = stack[sp--] * top;
+                    break;
+                case DIV:
+                    top = stack[sp--] / top;
+                    break;
+                case REM:
+                    top = stack[sp--] % top;
+                    break;
+                case POW:
+                    top = FastMath.pow(stack[sp--], top);
+                    break;
+                case MIN:
+                    top = Math.min(stack[sp--], top);
+                    break;
+                case MAX:
+                    top = Math.max(stack[sp--], top);
+                    break;
+                case ADD_CONST:
+                    top += constants[code[pc++]];
+                    break;
+                case MUL_CONST:
+                    top *= constants[code[pc++]];
+                    break;
+                case DIV_CONST:
+                    top /= constants[code[pc++]];
+                    break;
+                case POW_CONST:
+                    top = FastMath.pow(top, constants[code[pc++]]);
+                    break;
+                case ADD_LOAD:
+                    top += vars[code[pc++]];
+                    break;
+                case MUL_LOAD:
+                    top *= vars[code[pc++]];
+                    break;
+                case DIV_LOAD:
+                    top /= vars[code[pc++]];
+                    break;
+                case POW_LOAD:
+                    top = FastMath.pow(top, vars[code[pc++]]);
+                    break;
+                case LN:
+                    top = FastMath.log(top);
+                    break;
+                case SIN:
+                    top = FastMath.sin(top);
+                    break;
+                case COS:
+                    top = FastMath.cos(top);
+                    break;
+                case TAN:
+                    top = FastMath.tan(top);
+                    break;
+                case ASIN:
+                    top = FastMath.asin(top);
+                    break;
+                case ACOS:
+                    top = FastMath.acos(top);
+                    break;
+                case ATAN:
+                    top = FastMath.atan(top);
+                    break;
+                case SIGN:
+                    top = FastMath.signum(top);
+                    break;
+                case ABS:
+                    top = FastMath.abs(top);
+                    break;
+                case FLOOR:
+                    top = FastMath.floor(top);
+                    break;
+                case CEIL:
+                    top = FastMath.ceil(top);
+                    break;
+                case INVERT:
+                    top = 1.0d / top;
+                    break;
+                case CONST_POW:
+                    top = FastMath.pow(constants[code[pc++]], top);
+                    break;
+                case STORE:
+                    stack[registerStart + code[pc++]] = top;
+                    break;
+                case RECALL:
+                    stack[++sp] = top;
+                    top = stack[registerStart + code[pc++]];
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown instruction " + code[pc - 1] + " at " + (pc - 1));
+            }
+        }
+        return top;
+    }
+
+    /**
+     * calculate the values of the program for a whole batch of samples. Every
+     * instruction is applied to a full column of values, with the same kernels
+     * as {@link Expression#evaluateBatch(double[][], int, double[], VariableLayout)}
+     *
+     * @param columns - values of the variables, columns[slot][i] is the value of
+     *                the variable at that slot for the i-th sample
+     * @param n       - number of samples
+     * @param out     - array to store the n values in
+     */
+    public void evaluateBatch(double[][] columns, int n, double[] out) {
+        ScratchPool pool = ScratchPool.get();
+
+        // the stack of columns followed by the registers, the bottom of the stack is the output
+        double[][] work = new double[getWorkSize()][];
+        work[0] = out;
+        int borrowed = 0;
+        try {
+            for (int i = 1; i < work.length; i++) {
+                work[i] = pool.borrow(n);
+                borrowed++;
+            }
+            evaluateBatch(columns, n, work);
+        } finally {
+            for (int i = 0; i < borrowed; i++)
+                pool.release();
+        }
+    }
+
+    /**
+     * run the program on columns of samples
+     *
+     * @param columns - values of the variables
+     * @param n       - number of samples
+     * @param work    - the columns of the stack and the registers, the result
+     *                is left in the first one
+     */
+    private void evaluateBatch(double[][] columns, int n, double[][] work) {
+        final int[] code = this.code;
+        BatchKernels kernels = BatchKernels.INSTANCE;
+
+        int sp = -1; // index of the column on top of the stack
+        int pc = 0;
+        while (pc < code.length) {
+            int instruction = code[pc++];
+            switch (instruction) {
+                case CONST:
+                    Arrays.fill(work[++sp], 0, n, constants[code[pc++]]);
+                    break;
+                case LOAD:
+                    System.arraycopy(columns[code[pc++]], 0, work[++sp], 0, n);
+                    break;
+                case RECALL:
+                    System.arraycopy(work[maxStack + code[pc++]], 0, work[++sp], 0, n);
+                    break;
+                case STORE:
+                    System.arraycopy(work[sp], 0, work[maxStack + code[pc++]], 0, n);
+                    break;
+                case ADD:
+                    sp--;
+                    kernels.add(work[sp], work[sp + 1], n);
+                    break;
+                case MUL:
+                    sp--;
+                    kernels.multiply(work[sp], work[sp + 1], n);
+                    break;
+                case DIV:
+                    sp--;
+                    kernels.divide(work[sp], work[sp + 1], n);
+                    break;
+                case POW:
+                    sp--;
+                    kernels.pow(work[sp], work[sp + 1], n);
+                    break;
+                case ADD_LOAD:
+                    kernels.add(work[sp], columns[code[pc++]], n);
+                    break;
+                case MUL_LOAD:
+                    kernels.multiply(work[sp], columns[code[pc++]], n);
+                    break;
+                case DIV_LOAD:
+                    kernels.divide(work[sp], columns[code[pc++]], n);
+                    break;
+                case POW_LOAD:
+                    kernels.pow(work[sp], columns[code[pc++]], n);
+                    break;
+                case POW_CONST:
+                    kernels.pow(work[sp], constants[code[pc++]], n);
+                    break;
+                case CONST_POW:
+                    kernels.pow(constants[code[pc++]], work[sp], n);
+                    break;
+                case LN:
+                    kernels.log(work[sp], n);
+                    break;
+                case SIN:
+                    kernels.sin(work[sp], n);
+                    break;
+                case COS:
+                    kernels.cos(work[sp], n);
+                    break;
+                case TAN:
+                    kernels.tan(work[sp], n);
+                    break;
+                case ADD_CONST:
+                case MUL_CONST:
+                case DIV_CONST: {
+                    double c = constants[code[pc++]];
+                    double[] values = work[sp];
+                    if (instruction == ADD_CONST)
+                        for (int i = 0; i < n; i++)
+                            values[i] += c;
+                    else if (instruction == MUL_CONST)
+                        for (int i = 0; i < n; i++)
+                            values[i] *= c;
+                    else
+                        for (int i = 0; i < n; i++)
+                            values[i] /= c;
+                    break;
+                }
+                case REM:
+                case MIN:
+                case MAX: {
+                    sp--;
+                    double[] a = work[sp], b = work[sp + 1];
+                    for (int i = 0; i < n; i++)
+                        a[i] = binary(instruction, a[i], b[i]);
+                    break;
+                }
+                default: {
+                    double[] values = work[sp];
+                    for (int i = 0; i < n; i++)
+                        values[i] = unary(instruction, values[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the result of the binary instructions without a batch kernel
+     */
+    private static double binary(int instruction, double a, double b) {
+        switch (instruction) {
+            case REM:
+                return a % b;
+            case MIN:
+                return Math.min(a, b);
+            default:
+                return Math.max(a, b);
+        }
+    }
+
+    /**
+     * @return the result of the unary instructions without a batch kernel
+     */
+    private static double unary(int instruction, double in) {
+        switch (instruction) {
+            case ASIN:
+                return FastMath.asin(in);
+            case ACOS:
+                return FastMath.acos(in);
+            case ATAN:
+                return FastMath.atan(in);
+            case SIGN:
+                return FastMath.signum(in);
+            case ABS:
+                return FastMath.abs(in);
+            case FLOOR:
+                return FastMath.floor(in);
+            case CEIL:
+                return FastMath.ceil(in);
+            case INVERT:
+                return 1.0d / in;
+            default:
+                throw new IllegalStateException("Unknown instruction " + instruction);
+        }
+    }
+
+    /**
+     * @return the minimum size of the work array given to
+     * {@link #evaluate(double[], double[])}: the deepest the stack gets plus one
+     * element per register
+     */
+    public int getWorkSize() {
+        return maxStack + registers;
+    }
+
+    /**
+     * @return the number of shared subexpressions kept in registers
+     */
+    public int getRegisterCount() {
+        return registers;
+    }
+
+    /**
+     * @return the number of ints used by the instructions and their operands
+     */
+    public int getCodeLength() {
+        return code.length;
+    }
+
+    /**
+     * walks the tree in postfix order and appends the instructions of every node
+     */
+    private static final class Lowering {
+
+        private final VariableLayout layout;
+        private final Set<Expression> shared; // nodes to compute only once
+        private final IdentityHashMap<Expression, Integer> registers = new IdentityHashMap<>(); // register of each shared node computed so far
+        private int[] code = new int[32];
+        private int length = 0;
+        private double[] constants = new double[8];
+        private int constantCount = 0;
+        private final HashMap<Long, Integer> constantIndices = new HashMap<>(); // index of each constant by its bits
+        private int stack, maxStack;
+
+        private Lowering(VariableLayout layout, Set<Expression> shared) {
+            this.layout = layout;
+            this.shared = shared;
+        }
+
+        private void emit(Expression e) {
+            Integer register = registers.get(e);
+            if (register != null) { // already computed
+                op(RECALL, register);
+                push();
+                return;
+            }
+
+            emitNode(e);
+            if (shared.contains(e)) {
+                register = registers.size();
+                registers.put(e, register);
+                op(STORE, register);
+            }
+        }
+
+        private void emitNode(Expression e) {
+            switch (e.getType()) {
+                case CONSTANT:
+                    op(CONST, constant(((Constant) e).getValue()));
+                    push();
+                    break;
+                case VARIABLE:
+                    op(LOAD, slot(((Variable) e).getSymbol()));
+                    push();
+                    break;
+                case SUM:
+                case PRODUCT:
+                    chain(((Operator) e).children, e.getType() == ExpressionType.SUM ? ADD : MUL);
+                    break;
+                case MAX:
+                case MIN:
+                    chain(((ManyInputFunction) e).children, e.getType() == ExpressionType.MAX ? MAX : MIN);
+                    break;
+                case FRACTION: {
+                    Fraction frac = (Fraction) e;
+                    binary(frac.numerator, frac.denominator, DIV);
+                    break;
+                }
+                case POWER: {
+                    Power pow = (Power) e;
+                    binary(pow.expr, pow.power, POW);
+                    break;
+                }
+                case MODULUS: {
+                    Mod mod = (Mod) e;
+                    binary(mod.expr, mod.divisor, REM);
+                    break;
+                }
+                case LOGARITHM: { // ln(f) / ln(b)
+                    Log log = (Log) e;
+                    emit(log.expr);
+                    op(LN);
+                    if (log.base instanceof Constant) { // the log of the base only needs to be computed once
+                        op(DIV_CONST, constant(FastMath.log(((Constant) log.base).getValue())));
+                    } else {
+                        emit(log.base);
+                        op(LN);
+                        op(DIV);
+                        pop();
+                    }
+                    break;
+                }
+                case SIGN:
+                    unary(e, SIGN);
+                    break;
+                case ABSOLUTE_VALUE:
+                    unary(e, ABS);
+                    break;
+                case FLOOR:
+                    unary(e, FLOOR);
+                    break;
+                case CEILING:
+                    unary(e, CEIL);
+                    break;
+                case SIN:
+                    unary(e, SIN);
+                    break;
+                case COS:
+                    unary(e, COS);
+                    break;
+                case TAN:
+                    unary(e, TAN);
+                    break;
+                case CSC:
+                    unary(e, SIN);
+                    op(INVERT);
+                    break;
+                case SEC:
+                    unary(e, COS);
+                    op(INVERT);
+                    break;
+                case COT:
+                    unary(e, TAN);
+                    op(INVERT);
+                    break;
+                case ARCSIN:
+                    unary(e, ASIN);
+                    break;
+                case ARCCOS:
+                    unary(e, ACOS);
+                    break;
+                case ARCTAN:
+                    unary(e, ATAN);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Cannot lower expression of type " + e.getType());
+            }
+        }
+
+        /**
+         * emit the children one after the other, combining each one with the result
+         * of the previous ones
+         */
+        private void chain(Expression[] children, int instruction) {
+            emit(children[0]);
+            for (int i = 1; i < children.length; i++)
+                apply(children[i], instruction);
+        }
+
+        private void binary(Expression left, Expression right, int instruction) {
+            if (instruction == POW && left instanceof Constant && !(right instanceof Constant)) { // exponentials like 2^x
+                emit(right);
+                op(CONST_POW, constant(((Constant) left).getValue()));
+                return;
+            }
+            emit(left);
+            apply(right, instruction);
+        }
+
+        /**
+         * emit the right input of a binary instruction and the instruction, fused
+         * together when the input is a leaf
+         */
+        private void apply(Expression right, int instruction) {
+            int fused = -1;
+            if (instruction >= ADD && instruction <= POW && instruction != REM) { // the fusable instructions
+                if (right instanceof Constant)
+                    fused = fusedConst(instruction);
+                else if (right instanceof Variable)
+                    fused = fusedConst(instruction) + (ADD_LOAD - ADD_CONST);
+            }
+
+            if (fused < 0) {
+                emit(right);
+                op(instruction);
+                pop();
+            } else if (right instanceof Constant) {
+                op(fused, constant(((Constant) right).getValue()));
+            } else {
+                op(fused, slot(((Variable) right).getSymbol()));
+            }
+        }
+
+        private static int fusedConst(int instruction) {
+            switch (instruction) {
+                case ADD:
+                    return ADD_CONST;
+                case MUL:
+                    return MUL_CONST;
+                case DIV:
+                    return DIV_CONST;
+                default:
+                    return POW_CONST;
+            }
+        }
+
+        private void unary(Expression e, int instruction) {
+            emit(((FixedInputFunction) e).expr);
+            op(instruction);
+        }
+
+        private int slot(char symbol) {
+            int slot = layout.slotOf(symbol);
+            if (slot < 0)
+                throw new IllegalArgumentException("No slot was given for variable " + symbol);
+            return slot;
+        }
+
+        /**
+         * @return the index of the value in the constant pool, added if needed
+         */
+        private int constant(double value) {
+            Integer index = constantIndices.putIfAbsent(Double.doubleToRawLongBits(value), constantCount);
+            if (index != null)
+                return index;
+
+            if (constantCount == constants.length)
+                constants = Arrays.copyOf(constants, constantCount * 2);
+            constants[constantCount] = value;
+            return constantCount++;
+        }
+
+        private void op(int instruction) {
+            if (length == code.length)
+                code = Arrays.copyOf(code, length * 2);
+            code[length++] = instruction;
+        }
+
+        private void op(int instruction, int operand) {
+            op(instruction);
+            op(operand);
+        }
+
+        private void push() {
+            maxStack = Math.max(maxStack, ++stack);
+        }
+
+        private void pop() {
+            stack--;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.cas.core;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * table of all the expression nodes in use, every node is created through
+ * {@link #intern(Expression)} so two structurally equal trees are always the
+ * same object. The inputs of a node are interned before the node itself, which
+ * means comparing two nodes only needs their hash, their own attributes and the
+ * identity of their inputs. The free variables of a new node are found here
+ * from the ones of its inputs, bottom-up. Both the keys and the values are
+ * weak references, so nodes that are not used anymore are collected as usual
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+final class ExpressionTable {
+
+    private static final WeakHashMap<Expression, WeakReference<Expression>> TABLE = new WeakHashMap<>();
+
+    private ExpressionTable() {
+    }
+
+    /**
+     * get the canonical node equal to the given one
+     *
+     * @param node - a newly created node, its inputs must be canonical
+     * @param <T>  - type of the node
+     * @return the node already in the table if there is one, otherwise the given
+     * node which becomes the canonical one
+     */
+    @SuppressWarnings("unchecked")
+    static synchronized <T extends Expression> T intern(T node) {
+        WeakReference<Expression> ref = TABLE.get(node);
+        if (ref != null) {
+            Expression existing = ref.get();
+            if (existing != null)
+                return (T) existing; // equal nodes always have the same class
+        }
+        node.findVariables();
+        TABLE.put(node, new WeakReference<>(node));
+        return node;
+    }
+
+    /**
+     * @return the number of nodes currently in the table
+     */
+    static synchronized int size() {
+        return TABLE.size();
+    }
+}
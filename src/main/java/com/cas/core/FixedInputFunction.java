@@ -10,10 +10,29 @@ package com.cas.core;
  */
 public abstract class FixedInputFunction extends Expression {
 
-    protected Expression expr; // the input to the function
+    protected final Expression expr; // the input to the function
 
-    public FixedInputFunction(ExpressionType type, Expression expr) {
-        super(type);
+    protected FixedInputFunction(ExpressionType type, Expression expr) {
+        this(type, expr, expr.hashCode());
+    }
+
+    /**
+     * constructor for functions with more inputs, stored by the subclass
+     *
+     * @param inputsHash - hash of all the inputs
+     */
+    protected FixedInputFunction(ExpressionType type, Expression expr, int inputsHash) {
+        super(type, inputsHash);
         this.expr = expr;
     }
+
+    @Override
+    protected boolean sameInputs(Expression e) {
+        return expr == ((FixedInputFunction) e).expr;
+    }
+
+    @Override
+    Expression[] inputs() {
+        return new Expression[]{expr};
+    }
 }
\ No newline at end of file
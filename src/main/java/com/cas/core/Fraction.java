@@ -11,19 +11,52 @@ import java.util.HashMap;
  */
 public final class Fraction extends Expression {
 
-    protected Expression numerator, denominator; // components of a fraction
+    protected final Expression numerator, denominator; // components of a fraction
 
-    public Fraction(Expression num, Expression denom) {
-        super(ExpressionType.FRACTION);
+    private Fraction(Expression num, Expression denom) {
+        super(ExpressionType.FRACTION, 31 * num.hashCode() + denom.hashCode());
         numerator = num;
         denominator = denom;
     }
 
+    /**
+     * @param num   - the numerator
+     * @param denom - the denominator
+     * @return the fraction node num / denom
+     */
+    public static Fraction of(Expression num, Expression denom) {
+        return ExpressionTable.intern(new Fraction(num, denom));
+    }
+
     @Override
     public double evaluate(HashMap<Character, Double> varValues) {
         return numerator.evaluate(varValues) / denominator.evaluate(varValues);
     }
 
+    @Override
+    public double evaluate(double[] frame, VariableLayout layout) {
+        return numerator.evaluate(frame, layout) / denominator.evaluate(frame, layout);
+    }
+
+    @Override
+    public void evaluateBatch(double[][] columns, int n, double[] out, VariableLayout layout) {
+        numerator.evaluateBatch(columns, n, out, layout);
+
+        ScratchPool pool = ScratchPool.get();
+        double[] denom = pool.borrow(n);
+        try {
+            denominator.evaluateBatch(columns, n, denom, layout);
+            BatchKernels.INSTANCE.divide(out, denom, n);
+        } finally {
+            pool.release();
+        }
+    }
+
+    @Override
+    public Interval evaluateInterval(IntervalFrame frame) {
+        return Interval.divide(numerator.evaluateInterval(frame), denominator.evaluateInterval(frame));
+    }
+
     @Override
     public String toString() {
         return "((" + numerator + ")/(" + denominator + "))";
@@ -40,37 +73,39 @@ public final class Fraction extends Expression {
     }
 
     @Override
-    public boolean equals(Expression e) {
-        if (e instanceof Fraction) {
-            Fraction frac = (Fraction) e;
-            return numerator.equals(frac.numerator) && denominator.equals(frac.denominator);
-        }
-        return false;
+    protected boolean sameInputs(Expression e) {
+        Fraction frac = (Fraction) e;
+        return numerator == frac.numerator && denominator == frac.denominator;
+    }
+
+    @Override
+    Expression[] inputs() {
+        return new Expression[]{numerator, denominator};
     }
 
     @Override
     public Expression differentiate(char var) {
-        return new Fraction( // quotient rule
+        return Fraction.of( // quotient rule
                 Sum.create( // f'g - fg'
                         Product.create( // f'g
                                 numerator.differentiate(var), // f'g
                                 denominator // g
                         ), // end f'*g
                         Product.create( // -fg'
-                                new Constant(-1d), // -1
+                                Constant.of(-1d), // -1
                                 numerator, // f
                                 denominator.differentiate(var) // g'
                         ) // end -fg'
                 ), // end f'g - fg'
-                new Power( // g^2
+                Power.of( // g^2
                         denominator, // g
-                        new Constant(2d) // 2
+                        Constant.of(2d) // 2
                 ) // end g^2
         ); // end quotient rule
     }
 
     @Override
-    public Expression simplify() {
+    protected Expression computeSimplified() {
         Expression sNum = numerator.simplify();
         Expression sDenom = denominator.simplify();
 
@@ -82,16 +117,16 @@ public final class Fraction extends Expression {
          */
         if (numIsFrac && !denomIsFrac) { // (g / h) / f
             Fraction fNum = (Fraction) sNum;
-            return new Fraction(fNum.numerator.simplify(), Product.create(fNum.denominator.simplify(), sDenom));
+            return Fraction.of(fNum.numerator.simplify(), Product.create(fNum.denominator.simplify(), sDenom));
         }
         if (!numIsFrac && denomIsFrac) { // f / (g / h)
             Fraction fDenom = (Fraction) sDenom;
-            return new Fraction(Product.create(sNum, fDenom.denominator.simplify()), fDenom.numerator.simplify());
+            return Fraction.of(Product.create(sNum, fDenom.denominator.simplify()), fDenom.numerator.simplify());
         }
         if (numIsFrac && denomIsFrac) { // (g / h) / (f / i)
             Fraction fNum = (Fraction) sNum;
             Fraction fDenom = (Fraction) sDenom;
-            return new Fraction( // (g * i) / (h * f)
+            return Fraction.of( // (g * i) / (h * f)
                     Product.create(fNum.numerator.simplify(), fDenom.denominator.simplify()), // g * i
                     Product.create(fNum.denominator.simplify(), fDenom.numerator.simplify()) // h * f
             ); // end (g * i) / (h * f)
@@ -104,7 +139,7 @@ public final class Fraction extends Expression {
 //			Sum numSum = (Sum) sNum;
 //			Fraction[] fracs = new Fraction[numSum.children.length];
 //			for (int i = 0; i < fracs.length; i++)
-//				fracs[i] = new Fraction(numSum.children[i].simplify(), sDenom);
+//				fracs[i] = Fraction.of(numSum.children[i].simplify(), sDenom);
 //			return Sum.create(fracs).simplify();
 //		}
 
@@ -114,10 +149,10 @@ public final class Fraction extends Expression {
         if (sNum instanceof Constant && sDenom instanceof Constant) {
             double result = ((Constant) sNum).getValue() / ((Constant) sDenom).getValue();
             if (result == FastMath.floor(result))
-                return new Constant(result);
+                return Constant.of(result);
         }
 
-        return Product.create(sNum, new Power(sDenom, new Constant(-1d)).simplify());
-//		return new Fraction(sNum, sDenom);
+        return Product.create(sNum, Power.of(sDenom, Constant.of(-1d)).simplify());
+//		return Fraction.of(sNum, sDenom);
     }
 }
\ No newline at end of file
@@ -0,0 +1,351 @@
+package com.cas.core;
+
+/**
+ * closed interval of real numbers [min, max], used to bound the values of an
+ * expression when its variables range over intervals. Every operation rounds
+ * its bounds outwards, so whatever value an evaluator computes at a point of
+ * the input intervals is inside the result. Undefined values (NaN, like the
+ * log of a negative number) are left out: an interval only bounds the defined
+ * values and is empty if there are none
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+public final class Interval {
+
+    public static final Interval EMPTY = new Interval(); // no defined value
+    public static final Interval ENTIRE = new Interval(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+    private static final double LIBRARY_ERROR = 1e-13; // relative error allowed to the elementary functions
+    private static final double TRIG_ERROR = 1e-15; // absolute error allowed to sin, cos and tan
+    private static final double PERIOD_SLACK = 1e-9; // margin when looking for extremums, in periods
+    private static final double MAX_REDUCIBLE = 1e9; // beyond this, a period is not found reliably
+    private static final double HALF_PI = Math.PI / 2;
+    private static final double TWO_PI = Math.PI * 2;
+
+    private final double min, max; // the bounds, NaN if empty
+
+    /**
+     * constructor
+     *
+     * @param min - lower bound
+     * @param max - upper bound, not less than min
+     */
+    public Interval(double min, double max) {
+        if (!(min <= max))
+            throw new IllegalArgumentException("Invalid interval [" + min + ", " + max + "]");
+        this.min = min;
+        this.max = max;
+    }
+
+    /*
+     * constructor of the empty interval
+     */
+    private Interval() {
+        min = max = Double.NaN;
+    }
+
+    /**
+     * @param value - a value
+     * @return the interval holding only the value, empty if it is NaN
+     */
+    public static Interval of(double value) {
+        return Double.isNaN(value) ? EMPTY : new Interval(value, value);
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public boolean isEmpty() {
+        return Double.isNaN(min);
+    }
+
+    /**
+     * @return true if the value is in this interval
+     */
+    public boolean contains(double value) {
+        return value >= min && value <= max;
+    }
+
+    /**
+     * @return true if this interval and [min, max] have a value in common
+     */
+    public boolean intersects(double min, double max) {
+        return this.min <= max && this.max >= min;
+    }
+
+    @Override
+    public String toString() {
+        return isEmpty() ? "[]" : "[" + min + ", " + max + "]";
+    }
+
+    /**
+     * @return the interval [lo, hi] with both bounds moved one ulp outwards, an
+     * undefined bound becomes infinite
+     */
+    private static Interval rounded(double lo, double hi) {
+        lo = Double.isNaN(lo) ? Double.NEGATIVE_INFINITY : Math.nextDown(lo);
+        hi = Double.isNaN(hi) ? Double.POSITIVE_INFINITY : Math.nextUp(hi);
+        return new Interval(lo, hi);
+    }
+
+    /**
+     * @return the interval [lo, hi] widened by the error of an elementary
+     * function, relative to the bounds plus the given absolute error
+     */
+    private static Interval widened(double lo, double hi, double absolute) {
+        return rounded(lo - (Math.abs(lo) * LIBRARY_ERROR + absolute), hi + (Math.abs(hi) * LIBRARY_ERROR + absolute));
+    }
+
+    /**
+     * @return the smallest interval holding both intervals
+     */
+    static Interval hull(Interval a, Interval b) {
+        if (a.isEmpty())
+            return b;
+        if (b.isEmpty())
+            return a;
+        return new Interval(Math.min(a.min, b.min), Math.max(a.max, b.max));
+    }
+
+    static Interval add(Interval a, Interval b) {
+        if (a.isEmpty() || b.isEmpty())
+            return EMPTY;
+        return rounded(a.min + b.min, a.max + b.max);
+    }
+
+    static Interval multiply(Interval a, Interval b) {
+        if (a.isEmpty() || b.isEmpty())
+            return EMPTY;
+        // 0 * infinity is undefined, but the products close to it go to 0
+        double p1 = product(a.min, b.min), p2 = product(a.min, b.max);
+        double p3 = product(a.max, b.min), p4 = product(a.max, b.max);
+        return rounded(Math.min(Math.min(p1, p2), Math.min(p3, p4)), Math.max(Math.max(p1, p2), Math.max(p3, p4)));
+    }
+
+    private static double product(double a, double b) {
+        double p = a * b;
+        return Double.isNaN(p) ? 0d : p;
+    }
+
+    /**
+     * @return the interval of 1 / x, entire if it holds 0 since both infinities
+     * can then be reached
+     */
+    static Interval reciprocal(Interval a) {
+        if (a.isEmpty())
+            return EMPTY;
+        if (a.contains(0d))
+            return ENTIRE;
+        return rounded(1d / a.max, 1d / a.min);
+    }
+
+    static Interval divide(Interval a, Interval b) {
+        return multiply(a, reciprocal(b));
+    }
+
+    static Interval min(Interval a, Interval b) {
+        if (a.isEmpty() || b.isEmpty())
+            return EMPTY;
+        return new Interval(Math.min(a.min, b.min), Math.min(a.max, b.max));
+    }
+
+    static Interval max(Interval a, Interval b) {
+        if (a.isEmpty() || b.isEmpty())
+            return EMPTY;
+        return new Interval(Math.max(a.min, b.min), Math.max(a.max, b.max));
+    }
+
+    static Interval abs(Interval a) {
+        if (a.isEmpty() || a.min >= 0)
+            return a;
+        if (a.max <= 0)
+            return new Interval(-a.max, -a.min);
+        return new Interval(0d, Math.max(-a.min, a.max));
+    }
+
+    static Interval floor(Interval a) {
+        return a.isEmpty() ? EMPTY : new Interval(Math.floor(a.min), Math.floor(a.max));
+    }
+
+    static Interval ceil(Interval a) {
+        return a.isEmpty() ? EMPTY : new Interval(Math.ceil(a.min), Math.ceil(a.max));
+    }
+
+    static Interval signum(Interval a) {
+        return a.isEmpty() ? EMPTY : new Interval(Math.signum(a.min), Math.signum(a.max));
+    }
+
+    /**
+     * @return the interval of a % b, with the sign of a and less than b in size
+     */
+    static Interval mod(Interval a, Interval b) {
+        if (a.isEmpty() || b.isEmpty() || (b.min == 0d && b.max == 0d))
+            return EMPTY;
+
+        double m = Math.max(Math.abs(b.min), Math.abs(b.max));
+        double lo = a.min >= 0 ? 0d : Math.max(a.min, -m);
+        double hi = a.max <= 0 ? 0d : Math.min(a.max, m);
+
+        // a fixed divisor and no multiple of it inside a: a % b is a shifted
+        if (b.min == b.max && !Double.isInfinite(m) && !Double.isInfinite(a.min) && !Double.isInfinite(a.max)) {
+            double q, error = 4 * Math.ulp(Math.max(-a.min, a.max)); // the shift is rounded at the scale of a
+            if (a.min >= 0 && (q = Math.floor(a.min / m)) == Math.floor(a.max / m)) {
+                lo = Math.max(lo, a.min - q * m - error);
+                hi = Math.min(hi, a.max - q * m + error);
+            } else if (a.max <= 0 && (q = Math.ceil(a.max / m)) == Math.ceil(a.min / m)) {
+                lo = Math.max(lo, a.min - q * m - error);
+                hi = Math.min(hi, a.max - q * m + error);
+            }
+            if (lo > hi) // only by rounding
+                return rounded(Math.min(lo, hi), Math.max(lo, hi));
+        }
+        return rounded(lo, hi);
+    }
+
+    /**
+     * @return the interval of a^b, for a negative base only the integer
+     * exponents are defined
+     */
+    static Interval pow(Interval a, Interval b) {
+        if (a.isEmpty() || b.isEmpty())
+            return EMPTY;
+
+        if (b.min == b.max && b.min == Math.rint(b.min) && !Double.isInfinite(b.min))
+            return pow(a, b.min);
+
+        Interval result = EMPTY;
+        if (a.max >= 0) { // x^y = e^(y ln x) and y ln x is bilinear, so the extremums are at the corners
+            double lo = Math.max(a.min, 0d);
+            result = corners(lo, a.max, b);
+        }
+        if (a.min < 0 && Math.ceil(b.min) <= b.max) { // negative bases with integer exponents
+            Interval size = corners(Math.max(-a.max, 0d), -a.min, b);
+            result = hull(result, new Interval(-size.max, size.max));
+        }
+        return result;
+    }
+
+    /**
+     * @return the interval of x^y for x in [lo, hi], lo not negative, and y in b
+     */
+    private static Interval corners(double lo, double hi, Interval b) {
+        double p1 = Math.pow(lo, b.min), p2 = Math.pow(lo, b.max);
+        double p3 = Math.pow(hi, b.min), p4 = Math.pow(hi, b.max);
+        if (Double.isNaN(p1) || Double.isNaN(p2) || Double.isNaN(p3) || Double.isNaN(p4)) // like 1^infinity
+            return new Interval(0d, Double.POSITIVE_INFINITY);
+        return widened(Math.max(0d, Math.min(Math.min(p1, p2), Math.min(p3, p4))),
+                Math.max(Math.max(p1, p2), Math.max(p3, p4)), 0d);
+    }
+
+    /**
+     * @return the interval of x^n for an integer n
+     */
+    private static Interval pow(Interval a, double n) {
+        if (n == 0)
+            return new Interval(1d, 1d);
+        if (n < 0) {
+            Interval positive = pow(a, -n);
+            return reciprocal(positive);
+        }
+
+        boolean even = n % 2 == 0;
+        if (even) {
+            Interval size = abs(a);
+            return widened(Math.pow(size.min, n), Math.pow(size.max, n), 0d);
+        }
+        return widened(Math.pow(a.min, n), Math.pow(a.max, n), 0d);
+    }
+
+    /**
+     * @return the interval of the natural logarithm, defined for x >= 0
+     */
+    static Interval log(Interval a) {
+        if (a.isEmpty() || a.max < 0)
+            return EMPTY;
+        double lo = a.min <= 0 ? Double.NEGATIVE_INFINITY : Math.log(a.min);
+        return widened(lo, Math.log(a.max), 0d);
+    }
+
+    static Interval sin(Interval a) {
+        if (a.isEmpty())
+            return EMPTY;
+        if (!reducible(a, TWO_PI))
+            return new Interval(-1d, 1d);
+
+        double s1 = Math.sin(a.min), s2 = Math.sin(a.max);
+        double lo = hits(a, -HALF_PI, TWO_PI) ? -1d : Math.min(s1, s2);
+        double hi = hits(a, HALF_PI, TWO_PI) ? 1d : Math.max(s1, s2);
+        return trig(lo, hi);
+    }
+
+    static Interval cos(Interval a) {
+        if (a.isEmpty())
+            return EMPTY;
+        if (!reducible(a, TWO_PI))
+            return new Interval(-1d, 1d);
+
+        double c1 = Math.cos(a.min), c2 = Math.cos(a.max);
+        double lo = hits(a, Math.PI, TWO_PI) ? -1d : Math.min(c1, c2);
+        double hi = hits(a, 0d, TWO_PI) ? 1d : Math.max(c1, c2);
+        return trig(lo, hi);
+    }
+
+    /**
+     * @return the interval of tan, entire if it holds a pole
+     */
+    static Interval tan(Interval a) {
+        if (a.isEmpty())
+            return EMPTY;
+        if (!reducible(a, Math.PI) || hits(a, HALF_PI, Math.PI))
+            return ENTIRE;
+        return widened(Math.tan(a.min), Math.tan(a.max), TRIG_ERROR);
+    }
+
+    /**
+     * @return sin or cos bounds, widened and kept inside [-1, 1]
+     */
+    private static Interval trig(double lo, double hi) {
+        Interval w = widened(lo, hi, TRIG_ERROR);
+        return new Interval(Math.max(w.min, -1d), Math.min(w.max, 1d));
+    }
+
+    /**
+     * @return true if the interval is shorter than a period and close enough to
+     * 0 to find where it lies in the period
+     */
+    private static boolean reducible(Interval a, double period) {
+        return a.max - a.min < period && Math.abs(a.min) < MAX_REDUCIBLE && Math.abs(a.max) < MAX_REDUCIBLE;
+    }
+
+    /**
+     * @return true if the interval may hold a point offset + k * period for an
+     * integer k, erring on the side of yes
+     */
+    private static boolean hits(Interval a, double offset, double period) {
+        double k = Math.ceil((a.min - offset) / period - PERIOD_SLACK);
+        return k <= (a.max - offset) / period + PERIOD_SLACK;
+    }
+
+    static Interval asin(Interval a) {
+        if (a.isEmpty() || a.min > 1 || a.max < -1)
+            return EMPTY;
+        return widened(Math.asin(Math.max(a.min, -1d)), Math.asin(Math.min(a.max, 1d)), 0d);
+    }
+
+    static Interval acos(Interval a) {
+        if (a.isEmpty() || a.min > 1 || a.max < -1)
+            return EMPTY;
+        return widened(Math.acos(Math.min(a.max, 1d)), Math.acos(Math.max(a.min, -1d)), 0d);
+    }
+
+    static Interval atan(Interval a) {
+        if (a.isEmpty())
+            return EMPTY;
+        return widened(Math.atan(a.min), Math.atan(a.max), 0d);
+    }
+}
@@ -0,0 +1,71 @@
+package com.cas.core;
+
+/**
+ * the interval of every variable of an expression, indexed by the slots of a
+ * layout like the frames of {@link Expression#evaluate(double[], VariableLayout)}.
+ * A variable set to a single value is an interval holding only that value
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+public final class IntervalFrame {
+
+    private final VariableLayout layout; // slot of each variable
+    private final Interval[] intervals; // interval of each variable, null if not set
+
+    /**
+     * constructor, no variable is set
+     *
+     * @param layout - the slot of each variable
+     */
+    public IntervalFrame(VariableLayout layout) {
+        this.layout = layout;
+        intervals = new Interval[layout.size()];
+    }
+
+    public VariableLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @param slot     - the slot of the variable
+     * @param interval - the values the variable takes
+     */
+    public void set(int slot, Interval interval) {
+        intervals[slot] = interval;
+    }
+
+    /**
+     * @param slot - the slot of the variable
+     * @param min  - the smallest value the variable takes
+     * @param max  - the largest value the variable takes
+     */
+    public void set(int slot, double min, double max) {
+        intervals[slot] = new Interval(min, max);
+    }
+
+    /**
+     * @param var      - the variable
+     * @param interval - the values the variable takes
+     */
+    public void set(char var, Interval interval) {
+        intervals[slotOf(var)] = interval;
+    }
+
+    /**
+     * @param var - the variable
+     * @return the interval of the variable
+     */
+    public Interval get(char var) {
+        Interval interval = intervals[slotOf(var)];
+        if (interval == null)
+            throw new IllegalArgumentException("No interval for variable " + var);
+        return interval;
+    }
+
+    private int slotOf(char var) {
+        int slot = layout.slotOf(var);
+        if (slot < 0)
+            throw new IllegalArgumentException("No slot for variable " + var);
+        return slot;
+    }
+}
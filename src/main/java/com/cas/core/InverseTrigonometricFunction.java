@@ -10,7 +10,7 @@ import net.jafama.FastMath;
  */
 public abstract class InverseTrigonometricFunction extends TrigonometricFunction {
 
-    public InverseTrigonometricFunction(ExpressionType type, Expression expr) {
+    protected InverseTrigonometricFunction(ExpressionType type, Expression expr) {
         super(type, expr);
     }
 
@@ -25,36 +25,45 @@ public abstract class InverseTrigonometricFunction extends TrigonometricFunction
      * arccosine function
      */
     public static final class ArcCos extends InverseTrigonometricFunction {
-        public ArcCos(Expression expr) {
+        private ArcCos(Expression expr) {
             super(ExpressionType.ARCCOS, expr);
         }
 
+        public static ArcCos of(Expression expr) {
+            return ExpressionTable.intern(new ArcCos(expr));
+        }
+
         @Override
         protected double compute(double in) {
             return FastMath.acos(in);
         }
 
+        @Override
+        protected Interval compute(Interval in) {
+            return Interval.acos(in);
+        }
+
         @Override
         public Expression differentiate(char var) {
             return Product.create( // -1 * (1-f^2)^(-1/2) * f'
-                    new Constant(-1d), expr.differentiate(var), // -f'
-                    new Power( // (1-f^2)^(-1/2)
+                    Constant.of(-1d), expr.differentiate(var), // -f'
+                    Power.of( // (1-f^2)^(-1/2)
                             Sum.create( // 1-f^2
-                                    new Constant(1d), // 1
+                                    Constant.of(1d), // 1
                                     Product.create( // -f^2
-                                            new Constant(-1d), // -1
-                                            new Power(expr, new Constant(2d)) // f^2
+                                            Constant.of(-1d), // -1
+                                            Power.of(expr, Constant.of(2d)) // f^2
                                     ) // end product -f^2
                             ), // end sum of 1-f^2
-                            new Constant(-0.5d) // -1/2, the power
+                            Constant.of(-0.5d) // -1/2, the power
                     ) // end power: (1-f^2)^(-1/2)
             ); // end Product -1 * (1-f^2)^(-1/2) * f'
         }
 
         @Override
-        public Expression simplify() {
+        protected Expression computeSimplified() {
             Constant eval = evaluate();
-            return eval == null ? new ArcCos(expr.simplify()) : eval;
+            return eval == null ? ArcCos.of(expr.simplify()) : eval;
         }
     }
 
@@ -62,36 +71,45 @@ public abstract class InverseTrigonometricFunction extends TrigonometricFunction
      * arcsine function
      */
     public static final class ArcSin extends InverseTrigonometricFunction {
-        public ArcSin(Expression expr) {
+        private ArcSin(Expression expr) {
             super(ExpressionType.ARCSIN, expr);
         }
 
+        public static ArcSin of(Expression expr) {
+            return ExpressionTable.intern(new ArcSin(expr));
+        }
+
         @Override
         protected double compute(double in) {
             return FastMath.asin(in);
         }
 
+        @Override
+        protected Interval compute(Interval in) {
+            return Interval.asin(in);
+        }
+
         @Override
         public Expression differentiate(char var) {
             return Product.create( // (1-f^2)^(-1/2) * f'
                     expr.differentiate(var), // f'
-                    new Power( // (1-f^2)^(-1/2)
+                    Power.of( // (1-f^2)^(-1/2)
                             Sum.create( // 1-f^2
-                                    new Constant(1d), // 1
+                                    Constant.of(1d), // 1
                                     Product.create( // -f^2
-                                            new Constant(-1d), // -1
-                                            new Power(expr, new Constant(2d)) // f^2
+                                            Constant.of(-1d), // -1
+                                            Power.of(expr, Constant.of(2d)) // f^2
                                     ) // end product -f^2
                             ), // end sum of 1-f^2
-                            new Constant(-0.5d) // -1/2, the power
+                            Constant.of(-0.5d) // -1/2, the power
                     ) // end power: (1-f^2)^(-1/2)
             ); // end Product (1-f^2)^(-1/2) * f'
         }
 
         @Override
-        public Expression simplify() {
+        protected Expression computeSimplified() {
             Constant eval = evaluate();
-            return eval == null ? new ArcSin(expr.simplify()) : eval;
+            return eval == null ? ArcSin.of(expr.simplify()) : eval;
         }
     }
 
@@ -99,36 +117,45 @@ public abstract class InverseTrigonometricFunction extends TrigonometricFunction
      * arctangent function
      */
     public static final class ArcTan extends InverseTrigonometricFunction {
-        public ArcTan(Expression expr) {
+        private ArcTan(Expression expr) {
             super(ExpressionType.ARCTAN, expr);
         }
 
+        public static ArcTan of(Expression expr) {
+            return ExpressionTable.intern(new ArcTan(expr));
+        }
+
         @Override
         protected double compute(double in) {
             return FastMath.atan(in);
         }
 
+        @Override
+        protected Interval compute(Interval in) {
+            return Interval.atan(in);
+        }
+
         @Override
         public Expression differentiate(char var) {
             return Product.create( // f' * (1 + f^2)^(-1)
                     expr.differentiate(var), // f'
-                    new Power( // (1 + f^2)^(-1)
+                    Power.of( // (1 + f^2)^(-1)
                             Sum.create( // 1 + f^2
-                                    new Constant(1d), // 1
-                                    new Power( // f^2
+                                    Constant.of(1d), // 1
+                                    Power.of( // f^2
                                             expr, // f
-                                            new Constant(2d) // 2: squared
+                                            Constant.of(2d) // 2: squared
                                     ) // end f^2
                             ), // end 1 + f^2
-                            new Constant(-1d) // -1
+                            Constant.of(-1d) // -1
                     ) // end (1 + f^2)^(-1)
             ); // end of f' * (1 + f^2)^(-1)
         }
 
         @Override
-        public Expression simplify() {
+        protected Expression computeSimplified() {
             Constant eval = evaluate();
-            return eval == null ? new ArcTan(expr.simplify()) : eval;
+            return eval == null ? ArcTan.of(expr.simplify()) : eval;
         }
     }
 }
\ No newline at end of file
@@ -11,21 +11,33 @@ import java.util.HashMap;
  */
 public class Log extends FixedInputFunction {
 
-    protected Expression base; // the expression for the base of the logarithm
+    protected final Expression base; // the expression for the base of the logarithm
 
     /*
      * constructor with base expression if it's custom, so like log base 5
      */
-    public Log(Expression base, Expression expr) {
-        super(ExpressionType.LOGARITHM, expr);
+    private Log(Expression base, Expression expr) {
+        super(ExpressionType.LOGARITHM, expr, 31 * expr.hashCode() + base.hashCode());
         this.base = base;
     }
 
-    /*
-     * constructor with base 10
+    /**
+     * @param base - expression for the base, like log base 5
+     * @param expr - the input
+     * @return the logarithm node, an {@link Ln} node if the base is e
+     */
+    public static Log of(Expression base, Expression expr) {
+        if (base == Constant.EXP)
+            return Ln.of(expr);
+        return ExpressionTable.intern(new Log(base, expr));
+    }
+
+    /**
+     * @param expr - the input
+     * @return the logarithm node with base 10
      */
-    public Log(Expression expr) {
-        this(new Constant(10.0d), expr);
+    public static Log of(Expression expr) {
+        return of(Constant.of(10.0d), expr);
     }
 
     @Override
@@ -33,6 +45,39 @@ public class Log extends FixedInputFunction {
         return FastMath.log(expr.evaluate(varValues)) / FastMath.log(base.evaluate(varValues));
     }
 
+    @Override
+    public double evaluate(double[] frame, VariableLayout layout) {
+        return FastMath.log(expr.evaluate(frame, layout)) / FastMath.log(base.evaluate(frame, layout));
+    }
+
+    @Override
+    public void evaluateBatch(double[][] columns, int n, double[] out, VariableLayout layout) {
+        expr.evaluateBatch(columns, n, out, layout);
+        BatchKernels.INSTANCE.log(out, n);
+
+        if (base instanceof Constant) { // the log of the base only needs to be computed once
+            double logBase = FastMath.log(((Constant) base).getValue());
+            for (int i = 0; i < n; i++)
+                out[i] /= logBase;
+            return;
+        }
+
+        ScratchPool pool = ScratchPool.get();
+        double[] bases = pool.borrow(n);
+        try {
+            base.evaluateBatch(columns, n, bases, layout);
+            BatchKernels.INSTANCE.log(bases, n);
+            BatchKernels.INSTANCE.divide(out, bases, n);
+        } finally {
+            pool.release();
+        }
+    }
+
+    @Override
+    public Interval evaluateInterval(IntervalFrame frame) {
+        return Interval.divide(Interval.log(expr.evaluateInterval(frame)), Interval.log(base.evaluateInterval(frame)));
+    }
+
     @Override
     public String toString() {
         return "log_(" + base + ")_(" + expr + ")";
@@ -64,12 +109,13 @@ public class Log extends FixedInputFunction {
     }
 
     @Override
-    public boolean equals(Expression e) {
-        if (e instanceof Log) {
-            Log log = (Log) e;
-            return expr.equals(log.expr) && base.equals(log.base);
-        }
-        return false;
+    protected boolean sameInputs(Expression e) {
+        return super.sameInputs(e) && base == ((Log) e).base;
+    }
+
+    @Override
+    Expression[] inputs() {
+        return new Expression[]{expr, base};
     }
 
     @Override
@@ -78,33 +124,33 @@ public class Log extends FixedInputFunction {
         boolean inputIsNumber = expr instanceof Constant;
 
         if (baseIsNumber && inputIsNumber) // case log_b(k), where b and k are both numbers (constants)
-            return new Constant(0d);
+            return Constant.of(0d);
 
         if (baseIsNumber && !inputIsNumber) {// case log_b( f(x) ) where b is a numbers (constants)
             return Product.create( // f' * [ f * lnb ]^(-1)
                     expr.differentiate(var), // f'
-                    new Power( // [f * lnb]^(-1)
+                    Power.of( // [f * lnb]^(-1)
                             Product.create( // f * lnb
                                     expr, // f
-                                    new Ln(base) // lnb
+                                    Ln.of(base) // lnb
                             ), // end f * lnb
-                            new Constant(-1d) // -1
+                            Constant.of(-1d) // -1
                     ) // end [f * lnb]^(-1)
             ); // end f' * [ f * lnb ]^(-1)
         }
 
         // otherwise: case log_(g(x))(f(x))
-        return new Fraction( // derivative of ln(f(x)) / ln(g(x))
-                new Ln(expr), // ln(f(x))
-                new Ln(base) // ln(g(x))
+        return Fraction.of( // derivative of ln(f(x)) / ln(g(x))
+                Ln.of(expr), // ln(f(x))
+                Ln.of(base) // ln(g(x))
         ) // end of ln(f(x)) / ln(g(x))
                 .differentiate(var); // end derivative of ln(f(x)) / ln(g(x))
     }
 
     @Override
-    public Expression simplify() {
+    protected Expression computeSimplified() {
         if (expr.equals(base))
-            return new Constant(1d);
+            return Constant.of(1d);
         if (expr instanceof Power) {
             Power pow = (Power) expr;
             if (pow.expr.equals(base))
@@ -112,19 +158,27 @@ public class Log extends FixedInputFunction {
         }
         if (expr instanceof Constant)
             if (((Constant) expr).getValue() == 1d)
-                return new Constant(0d);
+                return Constant.of(0d);
 
-        return new Log(base.simplify(), expr.simplify());
+        return Log.of(base.simplify(), expr.simplify());
     }
 
     /*
      * natural logarithm
      */
     public static final class Ln extends Log {
-        public Ln(Expression expr) {
+        private Ln(Expression expr) {
             super(Constant.EXP, expr);
         }
 
+        /**
+         * @param expr - the input
+         * @return the natural logarithm node
+         */
+        public static Ln of(Expression expr) {
+            return ExpressionTable.intern(new Ln(expr));
+        }
+
         @Override
         public String toString() {
             return "ln(" + expr + ")";
@@ -148,17 +202,17 @@ public class Log extends FixedInputFunction {
         public Expression differentiate(char var) {
             return Product.create( // f' * f^(-1)
                     expr.differentiate(var), // f'
-                    new Power( // f^(-1)
+                    Power.of( // f^(-1)
                             expr, // f
-                            new Constant(-1d) // -1
+                            Constant.of(-1d) // -1
                     ) // end f^(-1)
             ); // end f' * f^(-1)
         }
 
         @Override
-        public Expression simplify() {
+        protected Expression computeSimplified() {
             if (expr.equals(base))
-                return new Constant(1d);
+                return Constant.of(1d);
             if (expr instanceof Power) {
                 Power pow = (Power) expr;
                 if (pow.expr.equals(base))
@@ -167,10 +221,10 @@ public class Log extends FixedInputFunction {
             if (expr instanceof Constant) {
                 Constant c = (Constant) expr;
                 if (c.getValue() == 1d)
-                    return new Constant(0d);
+                    return Constant.of(0d);
             }
 
-            return new Ln(expr.simplify());
+            return Ln.of(expr.simplify());
         }
     }
 }
\ No newline at end of file
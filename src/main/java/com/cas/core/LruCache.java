@@ -0,0 +1,152 @@
+package com.cas.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * thread safe cache holding a bounded number of entries, the least recently
+ * used entry is evicted when the cache is full. Counts its hits, misses and
+ * evictions so the cache can be tuned
+ *
+ * @param <K> - type of the keys
+ * @param <V> - type of the values
+ * @author Abd-El-Aziz Zayed
+ */
+public final class LruCache<K, V> {
+
+    private final int capacity; // maximum number of entries
+    private final LinkedHashMap<K, V> entries; // in access order, eldest first
+    private long hits, misses, evictions;
+
+    /**
+     * constructor
+     *
+     * @param capacity - maximum number of entries
+     */
+    public LruCache(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+
+        this.capacity = capacity;
+        entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @param key - the key
+     * @return the cached value, null if there is none
+     */
+    public synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value == null)
+            misses++;
+        else
+            hits++;
+        return value;
+    }
+
+    /**
+     * get the cached value or compute it. The value is computed without holding
+     * the lock, so the computation can use the cache itself (recursively) and
+     * two threads may compute the same value, the last one is kept
+     *
+     * @param key     - the key
+     * @param compute - computes the value of the key, must not return null
+     * @return the cached or computed value
+     */
+    public V get(K key, Function<? super K, ? extends V> compute) {
+        V value = get(key);
+        if (value == null) {
+            value = compute.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * add or replace an entry, evicting the least recently used one if the cache
+     * is full
+     *
+     * @param key   - the key
+     * @param value - the value
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * add an entry unless the key already has one, in one step so racing
+     * threads agree on a single value
+     *
+     * @param key   - the key
+     * @param value - the value
+     * @return the value already cached, null if the given value was added
+     */
+    public synchronized V putIfAbsent(K key, V value) {
+        V cached = entries.get(key);
+        if (cached == null)
+            entries.put(key, value);
+        return cached;
+    }
+
+    /**
+     * remove an entry if the key still has the given value
+     *
+     * @param key   - the key
+     * @param value - the value
+     */
+    public synchronized void remove(K key, V value) {
+        entries.remove(key, value);
+    }
+
+    /**
+     * remove all the entries, the counters are kept
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the fraction of the lookups that found their value, 0 if there was
+     * no lookup yet
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "LruCache[size=" + entries.size() + "/" + capacity + ", hits=" + hits + ", misses=" + misses
+                + ", evictions=" + evictions + "]";
+    }
+}
@@ -13,12 +13,21 @@ import java.util.HashMap;
  */
 public abstract class ManyInputFunction extends Expression {
 
-    protected Expression[] children; // input expressions
+    protected final Expression[] children; // input expressions, sorted
 
-    public ManyInputFunction(ExpressionType type, Expression[] expressions) {
-        super(type);
-        children = expressions;
-        Arrays.sort(children, ExpressionSorter.DEFAULT);
+    protected ManyInputFunction(ExpressionType type, Expression[] expressions) {
+        super(type, Arrays.hashCode(sorted(expressions)));
+        children = expressions; // sorted in place above
+    }
+
+    /**
+     * sort the inputs, in place
+     *
+     * @return the given array
+     */
+    private static Expression[] sorted(Expression[] expressions) {
+        Arrays.sort(expressions, ExpressionSorter.DEFAULT);
+        return expressions;
     }
 
     @Override
@@ -73,17 +82,46 @@ public abstract class ManyInputFunction extends Expression {
     }
 
     @Override
-    public boolean equals(Expression e) {
-        if (e instanceof ManyInputFunction) {
-            ManyInputFunction func = (ManyInputFunction) e;
-            if (type.equals(func.type)) {
-                for (int i = 0; i < children.length; i++)
-                    if (!children[i].equals(func.children[i]))
-                        return false;
-                return true;
+    public double evaluate(double[] frame, VariableLayout layout) {
+        double result = children[0].evaluate(frame, layout);
+        for (int i = 1; i < children.length; i++)
+            result = compute(result, children[i].evaluate(frame, layout));
+        return result;
+    }
+
+    @Override
+    public void evaluateBatch(double[][] columns, int n, double[] out, VariableLayout layout) {
+        children[0].evaluateBatch(columns, n, out, layout);
+
+        ScratchPool pool = ScratchPool.get();
+        double[] values = pool.borrow(n);
+        try {
+            for (int i = 1; i < children.length; i++) {
+                children[i].evaluateBatch(columns, n, values, layout);
+                for (int j = 0; j < n; j++)
+                    out[j] = compute(out[j], values[j]);
             }
+        } finally {
+            pool.release();
         }
-        return false;
+    }
+
+    @Override
+    public Interval evaluateInterval(IntervalFrame frame) {
+        Interval result = children[0].evaluateInterval(frame);
+        for (int i = 1; i < children.length; i++)
+            result = compute(result, children[i].evaluateInterval(frame));
+        return result;
+    }
+
+    @Override
+    protected boolean sameInputs(Expression e) {
+        return identical(children, ((ManyInputFunction) e).children);
+    }
+
+    @Override
+    Expression[] inputs() {
+        return children;
     }
 
     @Override
@@ -115,7 +153,7 @@ public abstract class ManyInputFunction extends Expression {
                 result[i] = ((Constant) children[i]).getValue();
             else
                 return null;
-        return new Constant(compute(result));
+        return Constant.of(compute(result));
     }
 
     /**
@@ -137,30 +175,59 @@ public abstract class ManyInputFunction extends Expression {
         double[] result = new double[resultList.size()];
         for (int i = 0; i < result.length; i++)
             result[i] = resultList.get(i);
-        return new Constant(compute(result));
+        return Constant.of(compute(result));
     }
 
     protected abstract double compute(double[] in);
 
+    /**
+     * @param a - first input
+     * @param b - second input
+     * @return the function applied to the two inputs, used to fold the inputs
+     * one by one without allocating an array
+     */
+    protected abstract double compute(double a, double b);
+
+    /**
+     * @param a - bounds of the first input
+     * @param b - bounds of the second input
+     * @return bounds of the function applied to the two inputs
+     */
+    protected abstract Interval compute(Interval a, Interval b);
+
     /**
      * a min function with arbitrary number of inputs
      *
      * @author Abd-El-Aziz Zayed
      */
     public static final class Min extends ManyInputFunction {
-        public Min(Expression... expressions) {
+        private Min(Expression... expressions) {
             super(ExpressionType.MIN, expressions);
         }
 
+        public static Min of(Expression... expressions) {
+            return ExpressionTable.intern(new Min(expressions));
+        }
+
         @Override
         protected double compute(double[] in) {
             return NumberUtils.min(in);
         }
 
         @Override
-        public Expression simplify() {
+        protected double compute(double a, double b) {
+            return Math.min(a, b);
+        }
+
+        @Override
+        protected Interval compute(Interval a, Interval b) {
+            return Interval.min(a, b);
+        }
+
+        @Override
+        protected Expression computeSimplified() {
             Constant eval = evaluate();
-            return eval == null ? new Min(simplifyChildren()) : eval;
+            return eval == null ? Min.of(simplifyChildren()) : eval;
         }
     }
 
@@ -170,19 +237,33 @@ public abstract class ManyInputFunction extends Expression {
      * @author Abd-El-Aziz Zayed
      */
     public static final class Max extends ManyInputFunction {
-        public Max(Expression... expressions) {
+        private Max(Expression... expressions) {
             super(ExpressionType.MAX, expressions);
         }
 
+        public static Max of(Expression... expressions) {
+            return ExpressionTable.intern(new Max(expressions));
+        }
+
         @Override
         protected double compute(double[] in) {
             return NumberUtils.max(in);
         }
 
         @Override
-        public Expression simplify() {
+        protected double compute(double a, double b) {
+            return Math.max(a, b);
+        }
+
+        @Override
+        protected Interval compute(Interval a, Interval b) {
+            return Interval.max(a, b);
+        }
+
+        @Override
+        protected Expression computeSimplified() {
             Constant eval = evaluate();
-            return eval == null ? new Max(simplifyChildren()) : eval;
+            return eval == null ? Max.of(simplifyChildren()) : eval;
         }
     }
 }
\ No newline at end of file
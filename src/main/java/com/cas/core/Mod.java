@@ -4,13 +4,22 @@ import java.util.HashMap;
 
 public class Mod extends FixedInputFunction {
 
-    protected Expression divisor;
+    protected final Expression divisor;
 
-    public Mod(Expression in1, Expression in2) {
-        super(ExpressionType.MODULUS, in1);
+    private Mod(Expression in1, Expression in2) {
+        super(ExpressionType.MODULUS, in1, 31 * in1.hashCode() + in2.hashCode());
         divisor = in2;
     }
 
+    /**
+     * @param in1 - the dividend
+     * @param in2 - the divisor
+     * @return the node in1 mod in2
+     */
+    public static Mod of(Expression in1, Expression in2) {
+        return ExpressionTable.intern(new Mod(in1, in2));
+    }
+
     @Override
     public String toString() {
         return type + "(" + expr + "," + divisor + ")";
@@ -32,12 +41,38 @@ public class Mod extends FixedInputFunction {
     }
 
     @Override
-    public boolean equals(Expression e) {
-        if (e instanceof Mod) {
-            Mod mod = (Mod) e;
-            return expr.equals(mod.expr) && divisor.equals(mod.divisor);
+    public double evaluate(double[] frame, VariableLayout layout) {
+        return expr.evaluate(frame, layout) % divisor.evaluate(frame, layout);
+    }
+
+    @Override
+    public void evaluateBatch(double[][] columns, int n, double[] out, VariableLayout layout) {
+        expr.evaluateBatch(columns, n, out, layout);
+
+        ScratchPool pool = ScratchPool.get();
+        double[] divisors = pool.borrow(n);
+        try {
+            divisor.evaluateBatch(columns, n, divisors, layout);
+            for (int i = 0; i < n; i++)
+                out[i] %= divisors[i];
+        } finally {
+            pool.release();
         }
-        return false;
+    }
+
+    @Override
+    public Interval evaluateInterval(IntervalFrame frame) {
+        return Interval.mod(expr.evaluateInterval(frame), divisor.evaluateInterval(frame));
+    }
+
+    @Override
+    protected boolean sameInputs(Expression e) {
+        return super.sameInputs(e) && divisor == ((Mod) e).divisor;
+    }
+
+    @Override
+    Expression[] inputs() {
+        return new Expression[]{expr, divisor};
     }
 
     @Override
@@ -46,7 +81,7 @@ public class Mod extends FixedInputFunction {
     }
 
     @Override
-    public Expression simplify() {
-        return new Mod(expr.simplify(), divisor.simplify());
+    protected Expression computeSimplified() {
+        return Mod.of(expr.simplify(), divisor.simplify());
     }
 }
\ No newline at end of file
@@ -1,7 +1,7 @@
 package com.cas.core;
 
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 
 /**
  * class inherited by all operators, so summations and products
@@ -10,26 +10,15 @@ import java.util.HashSet;
  */
 public abstract class Operator extends Expression {
 
-    public Expression[] children; // all the children to sum
-    public char symbol; // the symbol of the operator
+    public final Expression[] children; // all the children to sum, must not be modified
+    public final char symbol; // the symbol of the operator
 
     /*
-     * constructor receiving all the children already as expressions
+     * constructor receiving all the children already as expressions, in their
+     * final order
      */
     protected Operator(ExpressionType type, char sym, Expression... expressions) {
-        super(type);
-        children = expressions;
-        symbol = sym;
-    }
-
-    /*
-     * constructor receiving all children as strings that still need to be parsed
-     */
-    protected Operator(ExpressionType type, char sym, HashSet<Character> vars, String... strExpressions) {
-        super(type);
-        Expression[] expressions = new Expression[strExpressions.length];
-        for (int i = 0; i < expressions.length; i++)
-            expressions[i] = Parser.generateExpression(strExpressions[i], vars);
+        super(type, Arrays.hashCode(expressions));
         children = expressions;
         symbol = sym;
     }
@@ -42,6 +31,40 @@ public abstract class Operator extends Expression {
         return result;
     }
 
+    @Override
+    public double evaluate(double[] frame, VariableLayout layout) {
+        double result = neutral();
+        for (Expression node : children)
+            result = operate(result, node.evaluate(frame, layout));
+        return result;
+    }
+
+    @Override
+    public void evaluateBatch(double[][] columns, int n, double[] out, VariableLayout layout) {
+        children[0].evaluateBatch(columns, n, out, layout);
+        if (children.length == 1)
+            return;
+
+        ScratchPool pool = ScratchPool.get();
+        double[] values = pool.borrow(n);
+        try {
+            for (int i = 1; i < children.length; i++) {
+                children[i].evaluateBatch(columns, n, values, layout);
+                operate(out, values, n);
+            }
+        } finally {
+            pool.release();
+        }
+    }
+
+    @Override
+    public Interval evaluateInterval(IntervalFrame frame) {
+        Interval result = children[0].evaluateInterval(frame);
+        for (int i = 1; i < children.length; i++)
+            result = operate(result, children[i].evaluateInterval(frame));
+        return result;
+    }
+
     @Override
     public String toString() {
         if (children.length == 0)
@@ -103,17 +126,13 @@ public abstract class Operator extends Expression {
     }
 
     @Override
-    public boolean equals(Expression e) {
-        if (e instanceof Operator) {
-            Operator op = ((Operator) e);
-            if (children.length == op.children.length && symbol == op.symbol) {
-                for (int i = 0; i < children.length; i++)
-                    if (!children[i].equals(op.children[i]))
-                        return false;
-                return true;
-            }
-        }
-        return false;
+    protected boolean sameInputs(Expression e) {
+        return identical(children, ((Operator) e).children);
+    }
+
+    @Override
+    Expression[] inputs() {
+        return children;
     }
 
     public Expression[] getChildren() {
@@ -145,6 +164,22 @@ public abstract class Operator extends Expression {
      */
     protected abstract double operate(double a, double b);
 
+    /**
+     * apply the operation element by element: result[i] = op(result[i], in[i])
+     *
+     * @param result - first inputs, and where the results are stored
+     * @param in     - second inputs
+     * @param n      - number of elements
+     */
+    protected abstract void operate(double[] result, double[] in, int n);
+
+    /**
+     * @param a - bounds of input 1
+     * @param b - bounds of input 2
+     * @return bounds of the operation on the inputs
+     */
+    protected abstract Interval operate(Interval a, Interval b);
+
     /**
      * @return the neutral element of the operation
      */
@@ -9,58 +9,53 @@ import com.cas.core.InverseTrigonometricFunction.ArcTan;
 import com.cas.core.Log.Ln;
 import com.cas.core.ManyInputFunction.Max;
 import com.cas.core.ManyInputFunction.Min;
-import com.cas.core.Power.Exp;
 import com.cas.core.TrigonometricFunction.Cos;
 import com.cas.core.TrigonometricFunction.Cot;
 import com.cas.core.TrigonometricFunction.Csc;
 import com.cas.core.TrigonometricFunction.Sec;
 import com.cas.core.TrigonometricFunction.Sin;
 import com.cas.core.TrigonometricFunction.Tan;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.math.NumberUtils;
 
 import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Stack;
 
 /**
- * A class with static functions that help with parsing a mathematical
- * expression
+ * parser of mathematical expressions. The expression is read once from left to
+ * right: the tokenizer hands out one token at a time and the parser descends
+ * one method per precedence level, so parsing is linear in the length of the
+ * expression. From the loosest to the tightest, the levels are sums (+ and -),
+ * products (*), fractions (/), powers (^, right associative) and function
+ * applications. A function without brackets applies to the next function,
+ * bracket, number or variable, so sinx^2 is (sin(x))^2
+ * <p>
+ * The same functions are entered again and again, so parsed expressions are
+ * kept in a bounded cache keyed on the expression without its whitespace and
+ * with all its brackets as ( ). Nodes are immutable, so every equation parsed
+ * from the same input shares the same root
  *
  * @author Abd-El-Aziz Zayed
  */
 public class Parser {
 
-    /**
-     * clean up the given expression to parse more efficiently
-     *
-     * @param exp - given expression
-     * @return the clean expression
-     */
-    public static String clean(String exp) {
-        exp = exp.trim();
-        exp = exp.replace(" ", "");
-        exp = exp.replace("[", "(");
-        exp = exp.replace("]", ")");
-        exp = exp.replace("{", "(");
-        exp = exp.replace("}", ")");
-        exp = exp.replace("()", "");
-        return exp;
-    }
+    private static final char NUMBER = '0', NAME = 'a', END = '$'; // token kinds besides the symbols
+    private static final Constant MINUS_ONE = Constant.of(-1d);
+    private static final LruCache<String, Expression> PARSED = new LruCache<>(1024); // normalized input to root
 
-    /**
-     * setup the expression to be ready for parsing
-     *
-     * @param exp - the expression to setup
-     * @return the ready expression
-     */
-    private static String setup(String exp) {
-        exp = exp.replace("-", "+-1*");
-        exp = exp.replace(")(", ")*(");
-        // put * signs where needed
-        exp = removeUnnecessaryBracket(exp);
-        return exp;
+    // functions and constants, a longer name comes before any name it starts with
+    private static final String[] NAMES = {"arcsin", "arccos", "arctan", "floor", "ceil", "sqrt", "sign", "sin",
+            "cos", "tan", "csc", "sec", "cot", "abs", "max", "min", "mod", "log", "phi", "ln", "pi", "e"};
+
+    private final String exp; // expression to parse
+
+    private int pos; // index of the next character to read
+    private int start; // index of the current token
+    private char token; // kind of the current token, the symbol itself for + - * / ^ ( ) , _
+    private char previous; // kind of the token before the current one
+    private double number; // value of the current token if it is a number
+    private String name; // text of the current token if it is a name
+
+    private Parser(String exp) {
+        this.exp = exp;
     }
 
     /**
@@ -71,338 +66,326 @@ public class Parser {
      * @return expression tree
      */
     public static Expression parseExpression(String exp, HashSet<Character> vars) {
-        exp = setup(exp);
+        Expression root = PARSED.get(normalize(exp), Parser::parse);
+        for (char var : root.getVariables())
+            vars.add(var);
+        return root;
+    }
 
-        if (!isValidExpression(exp))
-            throw new IllegalArgumentException("Invalid Expression");
+    /**
+     * @return the cache of the parsed expressions, to read its counters or clear
+     * it
+     */
+    public static LruCache<String, Expression> getParseCache() {
+        return PARSED;
+    }
 
-        return generateExpression(exp, vars);
+    /**
+     * @return the expression without whitespace and with all its brackets as ( ),
+     * it is the key of the cache and the string actually parsed
+     */
+    private static String normalize(String exp) {
+        StringBuilder normal = new StringBuilder(exp.length());
+        for (int i = 0; i < exp.length(); i++) {
+            char c = exp.charAt(i);
+            if (c == '[' || c == '{')
+                c = '(';
+            else if (c == ']' || c == '}')
+                c = ')';
+            else if (Character.isWhitespace(c))
+                continue;
+            normal.append(c);
+        }
+        return normal.toString();
     }
 
     /**
-     * remove the unnecessary brackets from an expression
+     * parse the given expression, the cache is not used
      *
-     * @param exp - expression
-     * @return the clean expression
+     * @param exp - expression to parse
+     * @return expression tree
      */
-    private static String removeUnnecessaryBracket(String exp) {
-        int[] firstBrackets = getFirstPairOfBrackets(exp);
+    private static Expression parse(String exp) {
+        Parser parser = new Parser(exp);
+        parser.next();
+        if (parser.token == END)
+            throw new IllegalArgumentException("Invalid Expression: empty");
+
+        Expression root = parser.sum();
+        if (parser.token != END)
+            throw parser.unexpected();
+        return root;
+    }
 
-        while (firstBrackets != null && firstBrackets.length > 0 && firstBrackets[0] == 0
-                && firstBrackets[1] == exp.length() - 1) {
-            exp = exp.substring(1, exp.length() - 1);
-            firstBrackets = getFirstPairOfBrackets(exp);
+    /**
+     * read the next token
+     */
+    private void next() {
+        previous = token;
+        while (pos < exp.length() && Character.isWhitespace(exp.charAt(pos)))
+            pos++;
+        start = pos;
+
+        if (pos == exp.length()) {
+            token = END;
+            return;
+        }
+
+        char c = exp.charAt(pos);
+        if (Character.isDigit(c) || c == '.') {
+            boolean point = false;
+            while (pos < exp.length()) {
+                c = exp.charAt(pos);
+                if (c == '.' && !point)
+                    point = true;
+                else if (!Character.isDigit(c))
+                    break;
+                pos++;
+            }
+            if (pos - start == 1 && point)
+                throw unexpected();
+            token = NUMBER;
+            number = Double.parseDouble(exp.substring(start, pos));
+        } else if (Character.isAlphabetic(c)) {
+            token = NAME;
+            name = null;
+            for (String n : NAMES)
+                if (exp.startsWith(n, pos)) {
+                    name = n;
+                    break;
+                }
+            if (name == null) // a variable
+                name = Character.toString(c);
+            pos += name.length();
+        } else {
+            pos++;
+            switch (c) {
+                case '(':
+                case '[':
+                case '{':
+                    token = '(';
+                    break;
+                case ')':
+                case ']':
+                case '}':
+                    token = ')';
+                    break;
+                case '+':
+                case '-':
+                case '*':
+                case '/':
+                case '^':
+                case ',':
+                case '_':
+                    token = c;
+                    break;
+                default:
+                    pos--;
+                    throw unexpected();
+            }
         }
-        return exp;
     }
 
     /**
-     * generate an expression tree from the given string expression
+     * skip the current token if it is of the given kind
      *
-     * @param strExp - given expression
-     * @param vars   - set with all the used variables
-     * @return the expression tree
+     * @return true if the token was skipped
      */
-    protected static Expression generateExpression(String strExp, HashSet<Character> vars) {
-        strExp = removeUnnecessaryBracket(strExp);
-
-        if (strExp.contains("(")) {
-            int[] firstBrackets = getFirstPairOfBrackets(strExp);
-
-            String cut = strExp; // where we will cut out the inside of the brackets
-            LinkedList<String> remove = new LinkedList<String>();
-            while (firstBrackets != null) { // run until no more brackets to analyze
-                String rem = cut.substring(firstBrackets[0] + 1, firstBrackets[1]);
-                remove.add(rem);
-                cut = StringUtils.replaceOnce(cut, '(' + rem + ')', "()");
-                firstBrackets = getFirstPairOfBrackets(cut);
-            }
-
-            if (cut.contains("+")) { // parse addition
-                String[] exps = StringUtils.split(cut, "+");
-
-                // replace all the () with the respective expression
-                for (int i = 0; i < exps.length; i++)
-                    while (exps[i].contains("()"))
-                        exps[i] = StringUtils.replaceOnce(exps[i], "()", "(" + remove.pop() + ")");
-
-                return Sum.create(vars, exps); // finally create sum node with recursively generated children
-            } else if (cut.contains("*")) { // parse multiplication
-                String[] exps = StringUtils.split(cut, "*");
-
-                // replace all the () with the respective expression
-                for (int i = 0; i < exps.length; i++)
-                    while (exps[i].contains("()"))
-                        exps[i] = StringUtils.replaceOnce(exps[i], "()", "(" + remove.pop() + ")");
-
-                return Product.create(vars, exps); // finally create product node with recursively generated children
-            } else if (cut.contains("/")) { // parse division
-                int sign = cut.indexOf('/');
-                String num = cut.substring(0, sign);
-                String denum = cut.substring(sign + 1);
-
-                while (num.contains("()"))
-                    num = StringUtils.replaceOnce(num, "()", "(" + remove.pop() + ")");
-                while (denum.contains("()"))
-                    denum = StringUtils.replaceOnce(denum, "()", "(" + remove.pop() + ")");
-
-                return new Fraction(generateExpression(num, vars), generateExpression(denum, vars)); // create fraction
-            } else if (cut.contains("^")) { // parse powers
-                int sign = cut.indexOf('^');
-                String base = cut.substring(0, sign);
-                String power = cut.substring(sign + 1);
-
-                while (base.contains("()"))
-                    base = StringUtils.replaceOnce(base, "()", "(" + remove.pop() + ")");
-                while (power.contains("()"))
-                    power = StringUtils.replaceOnce(power, "()", "(" + remove.pop() + ")");
-
-                if (base.equals("e"))
-                    return new Exp(generateExpression(power, vars));
-
-                return new Power(generateExpression(base, vars), generateExpression(power, vars));
-            } else if (cut.equals("sqrt()")) // square root
-                return new Power(generateExpression(remove.pop(), vars), new Constant(0.5d));
-
-            else if (cut.equals("sin()")) // sin
-                return new Sin(generateExpression(remove.pop(), vars));
-            else if (cut.equals("cos()")) // cos
-                return new Cos(generateExpression(remove.pop(), vars));
-            else if (cut.equals("tan()")) // tan
-                return new Tan(generateExpression(remove.pop(), vars));
-
-            else if (cut.equals("csc()")) // csc
-                return new Csc(generateExpression(remove.pop(), vars));
-            else if (cut.equals("sec()")) // sec
-                return new Sec(generateExpression(remove.pop(), vars));
-            else if (cut.equals("cot()")) // cot
-                return new Cot(generateExpression(remove.pop(), vars));
-
-            else if (cut.equals("arcsin()")) // arcsin
-                return new ArcSin(generateExpression(remove.pop(), vars));
-            else if (cut.equals("arccos()")) // arccos
-                return new ArcCos(generateExpression(remove.pop(), vars));
-            else if (cut.equals("arctan()")) // arctan
-                return new ArcTan(generateExpression(remove.pop(), vars));
-
-            else if (cut.equals("abs()")) // absolute value
-                return new Abs(generateExpression(remove.pop(), vars));
-
-            else if (cut.equals("floor()")) // floor function
-                return new Floor(generateExpression(remove.pop(), vars));
-            else if (cut.equals("ceil()")) // ceiling function
-                return new Ceiling(generateExpression(remove.pop(), vars));
-
-            else if (cut.equals("max()")) { // max function
-                String in = remove.pop();
-                String[] ins = StringUtils.split(in, ",");
-                if (ins.length == 1)
-                    return generateExpression(ins[0], vars);
-
-                Expression[] exps = new Expression[ins.length];
-                for (int i = 0; i < exps.length; i++)
-                    exps[i] = generateExpression(ins[i], vars);
-                return new Max(exps);
-            } else if (cut.equals("min()")) { // min function
-                String in = remove.pop();
-                String[] ins = StringUtils.split(in, ",");
-                if (ins.length == 1)
-                    return generateExpression(ins[0], vars);
-
-                Expression[] exps = new Expression[ins.length];
-                for (int i = 0; i < exps.length; i++)
-                    exps[i] = generateExpression(ins[i], vars);
-                return new Min(exps);
-
-            } else if (cut.equals("mod()")) {
-                String in = remove.pop();
-                String[] ins = StringUtils.split(in, ",");
+    private boolean skip(char kind) {
+        if (token != kind)
+            return false;
+        next();
+        return true;
+    }
 
-                if (ins.length != 2)
-                    throw new IllegalArgumentException("Invalid Expression");
-
-                Expression in1 = generateExpression(ins[0], vars);
-                Expression in2 = generateExpression(ins[1], vars);
-
-                return new Mod(in1, in2);
-
-            } else if (cut.equals("sign()")) {
-                return new Sign(generateExpression(remove.pop(), vars));
-            } else if (cut.equals("log()")) // logarithm
-                return new Log(generateExpression(remove.pop(), vars));
-            else if (cut.equals("ln()")) // natural logarithm
-                return new Ln(generateExpression(remove.pop(), vars));
-            else if (cut.startsWith("log_")) { // log with specified base
-                String log = cut.substring(4);
-                int sign = log.indexOf('_');
-                String base = log.substring(0, sign);
-                String num = log.substring(sign + 1);
-
-                while (base.contains("()"))
-                    base = StringUtils.replaceOnce(base, "()", "(" + remove.pop() + ")");
-                while (num.contains("()"))
-                    num = StringUtils.replaceOnce(num, "()", "(" + remove.pop() + ")");
-
-                return new Log(generateExpression(base, vars), generateExpression(num, vars));
-            }
+    /**
+     * skip the current token, which must be of the given kind
+     */
+    private void expect(char kind) {
+        if (!skip(kind))
+            throw unexpected();
+    }
 
-        } else if (strExp.equals("e")) // e constant
-            return new Constant(Constant.EXP.getValue());
-        else if (strExp.equals("pi")) // pi constant
-            return new Constant(Constant.PI.getValue());
-        else if (strExp.equals("phi")) // phi constant
-            return new Constant(Constant.GOLDEN_RATIO.getValue());
-        else if (strExp.length() == 1 && Character.isAlphabetic(strExp.charAt(0))) {
-            char c = strExp.charAt(0);
-            vars.add(c);
-            return new Variable(c);
-        } else if (NumberUtils.isParsable(strExp)) // numbers
-            return new Constant(NumberUtils.createDouble(strExp));
-
-        else if (strExp.contains("+")) { // parse addition
-            String[] exps = StringUtils.split(strExp, "+");
-            return Sum.create(vars, exps);
-
-        } else if (strExp.contains("*")) { // parse multiplication
-            String[] exps = StringUtils.split(strExp, "*");
-            return Product.create(vars, exps);
-
-        } else if (strExp.contains("/")) { // parse divisions
-            int sign = strExp.indexOf('/');
-            String num = strExp.substring(0, sign);
-            String denum = strExp.substring(sign + 1);
-            return new Fraction(generateExpression(num, vars), generateExpression(denum, vars));
-
-        } else if (strExp.contains("^")) { // parse powers
-            int sign = strExp.indexOf('^');
-            String base = strExp.substring(0, sign);
-            String power = strExp.substring(sign + 1);
-            if (base.equals("e"))
-                return new Exp(generateExpression(power, vars));
-            return new Power(generateExpression(base, vars), generateExpression(power, vars));
-        } else if (strExp.startsWith("ln")) // natural log
-            return new Ln(generateExpression(strExp.substring(2), vars));
-
-        else if (strExp.startsWith("sin")) // sin
-            return new Sin(generateExpression(strExp.substring(3), vars));
-        else if (strExp.startsWith("cos")) // cos
-            return new Cos(generateExpression(strExp.substring(3), vars));
-        else if (strExp.startsWith("tan")) // tan
-            return new Tan(generateExpression(strExp.substring(3), vars));
-
-        else if (strExp.startsWith("csc")) // csc
-            return new Csc(generateExpression(strExp.substring(3), vars));
-        else if (strExp.startsWith("sec")) // sec
-            return new Sec(generateExpression(strExp.substring(3), vars));
-        else if (strExp.startsWith("cot")) // cot
-            return new Cot(generateExpression(strExp.substring(3), vars));
-
-        else if (strExp.startsWith("abs")) // absolute value
-            return new Abs(generateExpression(strExp.substring(3), vars));
-
-        else if (strExp.startsWith("log") && strExp.length() <= 4) // log
-            return new Log(generateExpression(strExp.substring(3), vars));
-        else if (strExp.startsWith("log_")) { // log where brackets are not needed
-            int sign = strExp.substring(4).indexOf('_') + 4;
-            String base = strExp.substring(4, sign);
-            String num = strExp.substring(sign + 1);
-            return new Log(generateExpression(base, vars), generateExpression(num, vars));
-
-        } else if (strExp.startsWith("ceil")) // ceiling function
-            return new Ceiling(generateExpression(strExp.substring(4), vars));
-        else if (strExp.startsWith("sqrt")) // sqrt function
-            return new Power(generateExpression(strExp.substring(4), vars), new Constant(0.5d));
-        else if (strExp.startsWith("floor")) // floor function
-            return new Floor(generateExpression(strExp.substring(5), vars));
-
-        else if (strExp.startsWith("arcsin")) // arcsin
-            return new ArcSin(generateExpression(strExp.substring(6), vars));
-        else if (strExp.startsWith("arccos")) // arccos
-            return new ArcCos(generateExpression(strExp.substring(6), vars));
-        else if (strExp.startsWith("arctan")) // arctan
-            return new ArcTan(generateExpression(strExp.substring(6), vars));
-
-        return null;
+    /**
+     * @return the error for the current token
+     */
+    private IllegalArgumentException unexpected() {
+        if (start >= exp.length())
+            return new IllegalArgumentException("Invalid Expression: unexpected end");
+        return new IllegalArgumentException("Invalid Expression: unexpected '" + exp.charAt(start) + "' at " + start);
     }
 
     /**
-     * determine the indices of the first pair of brackets in the given expression
-     *
-     * @param expr - the given expression
-     * @return an array of 2 with the indices to the pair of brackets
+     * sum := term (('+' | '-') term)*
      */
-    private static int[] getFirstPairOfBrackets(String expr) {
-        String exp = expr.replace("()", "");
-        if (exp == null || exp.isEmpty())
-            return null;
-        ArrayList<Integer> open = new ArrayList<Integer>();
-        ArrayList<Integer> closed = new ArrayList<Integer>();
-        Stack<Character> stack = new Stack<Character>();
-        for (int i = 0; i < exp.length(); i++) {
-            char c = exp.charAt(i);
-            if (c == '(') {
-                stack.add(c);
-                open.add(i);
-                int j;
-                for (j = i + 1; j < exp.length() && !stack.isEmpty(); j++) {
-                    c = exp.charAt(j);
-                    if (c == '(')
-                        stack.add(c);
-                    else if (c == ')')
-                        stack.pop();
-                }
-                closed.add(j - 1);
-            }
+    private Expression sum() {
+        ArrayList<Expression> terms = new ArrayList<>();
+        terms.add(term());
+        while (token == '+' || token == '-') {
+            skip('+');
+            terms.add(term());
         }
+        if (terms.size() == 1)
+            return terms.get(0);
+        return Sum.of(terms.toArray(new Expression[0]));
+    }
 
-        if (open.isEmpty())
-            return null;
+    /**
+     * term := '-'? fraction ('*' fraction)*, a minus sign becomes a factor of -1
+     * in the product
+     */
+    private Expression term() {
+        ArrayList<Expression> factors = new ArrayList<>();
+        if (skip('-'))
+            factors.add(MINUS_ONE);
+
+        factors.add(fraction());
+        // brackets right after brackets are multiplied, like (x+1)(x-1)
+        while (token == '*' || (token == '(' && previous == ')')) {
+            skip('*');
+            factors.add(fraction());
+        }
+        if (factors.size() == 1)
+            return factors.get(0);
+        return Product.of(factors.toArray(new Expression[0]));
+    }
 
-        int l = StringUtils.countMatches(expr, "()");
-        return new int[]{open.get(0) + 2 * l, closed.get(0) + 2 * l};
+    /**
+     * fraction := power ('/' power)*
+     */
+    private Expression fraction() {
+        Expression fraction = power();
+        while (skip('/'))
+            fraction = Fraction.of(fraction, power());
+        return fraction;
     }
 
     /**
-     * check if a given expression is mathematically valid
-     *
-     * @param exp - given expression to check
-     * @return true if valid, false otherwise
+     * power := '-' power | application ('^' power)?, the minus is only allowed
+     * right after * / or ^, like x^-2, anywhere else it is a subtraction
      */
-    private static boolean isValidExpression(String exp) {
-        // test for unbalanced brackets
-        if (exp == null || exp.isEmpty())
-            return false;
+    private Expression power() {
+        if (token == '-' && (previous == '*' || previous == '/' || previous == '^')) {
+            next();
+            return Product.of(MINUS_ONE, power());
+        }
 
-        // test for balanced brackets
-        if (!balancedBrackets(exp))
-            return false;
+        Expression base = application();
+        if (skip('^'))
+            return Power.of(base, power());
+        return base;
+    }
 
-        // test undefined duplicates
-        return !exp.contains("//") && !exp.contains("^^") && !exp.contains("**") && !exp.contains("++") && !exp.contains("--");
+    /**
+     * application := number | '(' sum ')' | constant | variable | function
+     * application
+     */
+    private Expression application() {
+        switch (token) {
+            case NUMBER:
+                Constant c = Constant.of(number);
+                next();
+                return c;
+            case '(':
+                next();
+                Expression inside = sum();
+                expect(')');
+                return inside;
+            case NAME:
+                String n = name;
+                next();
+                return named(n);
+            default:
+                throw unexpected();
+        }
     }
 
     /**
-     * check if the brackets in an expression are balanced
-     *
-     * @param exp - given expression to run check on
-     * @return true if balanced, false if otherwise
+     * @param n - a name, already skipped
+     * @return the constant, variable or function application with the given name
      */
-    private static boolean balancedBrackets(String exp) {
-        Stack<Character> stack = new Stack<Character>();
-        for (int i = 0; i < exp.length(); i++) {
-            if (exp.charAt(i) == '(')
-                stack.push(exp.charAt(i));
-            else if (exp.charAt(i) == ')') {
-                if (stack.isEmpty())
-                    return false;
-                else {
-                    char c1 = stack.pop();
-                    char c2 = exp.charAt(i);
-                    if (!(c1 == '(' && c2 == ')'))
-                        return false;
-                }
+    private Expression named(String n) {
+        switch (n) {
+            case "e":
+                return Constant.EXP;
+            case "pi":
+                return Constant.PI;
+            case "phi":
+                return Constant.GOLDEN_RATIO;
+
+            case "sqrt":
+                return Power.of(application(), Constant.of(0.5d));
+
+            case "sin":
+                return Sin.of(application());
+            case "cos":
+                return Cos.of(application());
+            case "tan":
+                return Tan.of(application());
+
+            case "csc":
+                return Csc.of(application());
+            case "sec":
+                return Sec.of(application());
+            case "cot":
+                return Cot.of(application());
+
+            case "arcsin":
+                return ArcSin.of(application());
+            case "arccos":
+                return ArcCos.of(application());
+            case "arctan":
+                return ArcTan.of(application());
+
+            case "abs":
+                return Abs.of(application());
+            case "floor":
+                return Floor.of(application());
+            case "ceil":
+                return Ceiling.of(application());
+            case "sign":
+                return Sign.of(application());
+
+            case "max": {
+                Expression[] ins = arguments();
+                return ins.length == 1 ? ins[0] : Max.of(ins);
+            }
+            case "min": {
+                Expression[] ins = arguments();
+                return ins.length == 1 ? ins[0] : Min.of(ins);
             }
+            case "mod": {
+                Expression[] ins = arguments();
+                if (ins.length != 2)
+                    throw new IllegalArgumentException("Invalid Expression: mod takes 2 inputs");
+                return Mod.of(ins[0], ins[1]);
+            }
+
+            case "ln":
+                return Ln.of(application());
+            case "log":
+                if (skip('_')) { // log with specified base, log_b_x
+                    Expression base = sum();
+                    expect('_');
+                    return Log.of(base, application());
+                }
+                return Log.of(application());
+
+            default: // variable
+                return Variable.of(n.charAt(0));
         }
-        return stack.isEmpty();
     }
-}
\ No newline at end of file
+
+    /**
+     * arguments := '(' sum (',' sum)* ')'
+     */
+    private Expression[] arguments() {
+        expect('(');
+        ArrayList<Expression> ins = new ArrayList<>();
+        do
+            ins.add(sum());
+        while (skip(','));
+        expect(')');
+        return ins.toArray(new Expression[0]);
+    }
+}
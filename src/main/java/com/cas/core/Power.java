@@ -11,7 +11,7 @@ import java.util.HashMap;
  */
 public class Power extends FixedInputFunction {
 
-    protected Expression power; // the expression in the exponent
+    protected final Expression power; // the expression in the exponent
 
     /**
      * constructor, example: a^b : a is the base and b is the power/exponent
@@ -19,16 +19,62 @@ public class Power extends FixedInputFunction {
      * @param base  - expression at the base
      * @param power - expression in the exponent
      */
-    public Power(Expression base, Expression power) {
-        super(ExpressionType.POWER, base);
+    private Power(Expression base, Expression power) {
+        super(ExpressionType.POWER, base, 31 * base.hashCode() + power.hashCode());
         this.power = power;
     }
 
+    /**
+     * @param base  - expression at the base
+     * @param power - expression in the exponent
+     * @return the power node base^power, an {@link Exp} node if the base is e
+     */
+    public static Power of(Expression base, Expression power) {
+        if (base == Constant.EXP)
+            return Exp.of(power);
+        return ExpressionTable.intern(new Power(base, power));
+    }
+
     @Override
     public double evaluate(HashMap<Character, Double> varValues) {
         return FastMath.pow(expr.evaluate(varValues), power.evaluate(varValues));
     }
 
+    @Override
+    public double evaluate(double[] frame, VariableLayout layout) {
+        return FastMath.pow(expr.evaluate(frame, layout), power.evaluate(frame, layout));
+    }
+
+    @Override
+    public void evaluateBatch(double[][] columns, int n, double[] out, VariableLayout layout) {
+        if (expr instanceof Constant) { // exponentials like 2^x, the exponents are the column
+            power.evaluateBatch(columns, n, out, layout);
+            BatchKernels.INSTANCE.pow(((Constant) expr).getValue(), out, n);
+            return;
+        }
+
+        expr.evaluateBatch(columns, n, out, layout);
+
+        if (power instanceof Constant) { // most common case, no need for a column of exponents
+            BatchKernels.INSTANCE.pow(out, ((Constant) power).getValue(), n);
+            return;
+        }
+
+        ScratchPool pool = ScratchPool.get();
+        double[] pows = pool.borrow(n);
+        try {
+            power.evaluateBatch(columns, n, pows, layout);
+            BatchKernels.INSTANCE.pow(out, pows, n);
+        } finally {
+            pool.release();
+        }
+    }
+
+    @Override
+    public Interval evaluateInterval(IntervalFrame frame) {
+        return Interval.pow(expr.evaluateInterval(frame), power.evaluateInterval(frame));
+    }
+
     @Override
     public String toString() {
         return "(" + expr + ")^(" + power + ")";
@@ -71,12 +117,13 @@ public class Power extends FixedInputFunction {
     }
 
     @Override
-    public boolean equals(Expression e) {
-        if (e instanceof Power) {
-            Power pow = (Power) e;
-            return expr.equals(pow.expr) && power.equals(pow.power);
-        }
-        return false;
+    protected boolean sameInputs(Expression e) {
+        return super.sameInputs(e) && power == ((Power) e).power;
+    }
+
+    @Override
+    Expression[] inputs() {
+        return new Expression[]{expr, power};
     }
 
     /**
@@ -99,15 +146,15 @@ public class Power extends FixedInputFunction {
         boolean powerIsNumber = power instanceof Constant;
 
         if (baseIsNumber && powerIsNumber) // case b^k, where b and k are both numbers (constants)
-            return new Constant(0d);
+            return Constant.of(0d);
 
         if (!baseIsNumber && powerIsNumber) // case [ f(x) ]^k, where k is a constant
             return Product.create( // k*f^(k-1)*f'
                     power, // k
                     expr.differentiate(var), // f'
-                    new Power( // f^(k - 1)
+                    Power.of( // f^(k - 1)
                             expr, // f
-                            new Constant(((Constant) power).getValue() - 1d) // end f^(k - 1)
+                            Constant.of(((Constant) power).getValue() - 1d) // end f^(k - 1)
                     ) // end f^(k - 1)
             ); // end k*f^(k-1)*f'
 
@@ -115,7 +162,7 @@ public class Power extends FixedInputFunction {
             return Product.create( // k^f * lnk + f'
                     this, // a^f
                     power.differentiate(var), // f'
-                    new Log.Ln(expr) // lnk
+                    Log.Ln.of(expr) // lnk
             ); // end k^f * lnk + f'
 
         // otherwise: case [ f(x) ]^[ g(x) ], here we use the generalized power rule
@@ -124,14 +171,14 @@ public class Power extends FixedInputFunction {
                 Sum.create( // g'*lnf + g*f'*(f)^(-1)
                         Product.create( // g'*lnf
                                 power.differentiate(var), // g'
-                                new Log.Ln(expr) // lnf
+                                Log.Ln.of(expr) // lnf
                         ), // end g'*lnf
                         Product.create( // g*f'*(f)^(-1)
                                 power, // g
                                 expr.differentiate(var), // f'
-                                new Power( // (f)^(-1)
+                                Power.of( // (f)^(-1)
                                         expr, // f
-                                        new Constant(-1d) // -1
+                                        Constant.of(-1d) // -1
                                 ) // end (f)^(-1)
                         ) // end g*f'*(f)^(-1)
                 ) // end g'*lnf + g*f'*(f)^(-1)
@@ -139,21 +186,21 @@ public class Power extends FixedInputFunction {
     }
 
     @Override
-    public Expression simplify() {
+    protected Expression computeSimplified() {
         if (expr instanceof Fraction) {
             Fraction inner = (Fraction) expr;
-            return new Fraction(new Power(inner.numerator, power), new Power(inner.denominator, power));
+            return Fraction.of(Power.of(inner.numerator, power), Power.of(inner.denominator, power));
 
         } else if (expr instanceof Power) {
             Power inner = (Power) expr;
-            return new Power(inner.expr, Product.create(power, inner.power));
+            return Power.of(inner.expr, Product.create(power, inner.power));
 
         } else if (expr instanceof Product) {
 
             Product inner = (Product) expr;
             Expression[] exps = new Expression[inner.children.length];
             for (int i = 0; i < exps.length; i++)
-                exps[i] = new Power(inner.children[i], power);
+                exps[i] = Power.of(inner.children[i], power);
 
             Expression prod = Product.create(exps);
             return prod;
@@ -169,14 +216,14 @@ public class Power extends FixedInputFunction {
                 Constant base = (Constant) expr;
                 double res = FastMath.pow(base.getValue(), pow.getValue());
                 if (FastMath.floor(res) == res && res < 1000d)
-                    return new Constant(res);
+                    return Constant.of(res);
             }
             if (pow.getValue() == 0d)
-                return new Constant(1d);
+                return Constant.of(1d);
             if (pow.getValue() == 1d)
                 return expr;
         }
-        return new Power(expr.simplify(), power.simplify());
+        return Power.of(expr.simplify(), power.simplify());
     }
 
     /**
@@ -197,17 +244,25 @@ public class Power extends FixedInputFunction {
      * @return this expression but with a negated power
      */
     protected Expression toDenominator() {
-        return new Power(expr, Product.create(new Constant(-1d), power));
+        return Power.of(expr, Product.create(Constant.of(-1d), power));
     }
 
     /*
      * natural exponential with e, so e^x, where x is any expression
      */
     public static final class Exp extends Power {
-        public Exp(Expression power) {
+        private Exp(Expression power) {
             super(Constant.EXP, power);
         }
 
+        /**
+         * @param power - expression in the exponent
+         * @return the node e^power
+         */
+        public static Exp of(Expression power) {
+            return ExpressionTable.intern(new Exp(power));
+        }
+
         @Override
         public Expression differentiate(char var) {
             return Product.create( // e^(f) * f'
@@ -217,11 +272,11 @@ public class Power extends FixedInputFunction {
         }
 
         @Override
-        public Expression simplify() {
+        protected Expression computeSimplified() {
             if (power instanceof Constant) {
                 Constant pow = (Constant) power;
                 if (pow.getValue() == 0d)
-                    return new Constant(1d);
+                    return Constant.of(1d);
                 if (pow.getValue() == 1d)
                     return expr;
             } else if (power instanceof Log) {
@@ -230,7 +285,7 @@ public class Power extends FixedInputFunction {
                     return log.expr;
             }
 
-            return new Exp(power.simplify());
+            return Exp.of(power.simplify());
         }
     }
 }
\ No newline at end of file
@@ -3,7 +3,6 @@ package com.cas.core;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 
 /**
  * a class representing a finite product
@@ -14,32 +13,26 @@ public class Product extends Operator implements IMath {
 
 //	private static final ExpressionSorter SORTER = new ExpressionSorter(false); // sorter
 
-    protected Product(Expression... expressions) {
-        super(ExpressionType.PRODUCT, '*', expressions);
-        Arrays.sort(children, ExpressionSorter.DEFAULT);
+    private Product(Expression... expressions) {
+        super(ExpressionType.PRODUCT, '*', sorted(expressions));
     }
 
-    private Product(HashSet<Character> vars, String... strExpression) {
-        super(ExpressionType.PRODUCT, '*', vars, strExpression);
-        Arrays.sort(children, ExpressionSorter.DEFAULT);
+    /**
+     * @param expressions - the children
+     * @return the product node of the given children, without any simplification
+     */
+    static Product of(Expression... expressions) {
+        return ExpressionTable.intern(new Product(expressions));
     }
 
     /**
-     * function to create an expression node with the given children as strings,
-     * they still need to be parsed. The point of this function is to perform early
-     * refactoring to make life easier later on. It does not have to return a
-     * product node if the refactored expression does not require one
+     * sort the children, in place
      *
-     * @param vars          - the set of all variables
-     * @param strExpression - the array of strings to be parsed into expressions
-     * @return the refactored expression
+     * @return the given array
      */
-    public static Expression create(HashSet<Character> vars, String... strExpression) {
-        if (strExpression.length == 0)
-            return null;
-        if (strExpression.length == 1)
-            return Parser.generateExpression(strExpression[0], vars);
-        return new Product(vars, strExpression);
+    private static Expression[] sorted(Expression[] children) {
+        Arrays.sort(children, ExpressionSorter.DEFAULT);
+        return children;
     }
 
     /**
@@ -60,7 +53,7 @@ public class Product extends Operator implements IMath {
 
         // remove all the 1s and if there is a zero, return a zero constant
         ArrayList<Expression> valid = new ArrayList<>();
-        Constant c0 = new Constant(0d), c1 = new Constant(1d);
+        Constant c0 = Constant.of(0d), c1 = Constant.of(1d);
         for (int i = 0; i < expressions.length; i++) {
             if (expressions[i].equals(c0))
                 return c0;
@@ -76,7 +69,7 @@ public class Product extends Operator implements IMath {
             if (valid.get(0) instanceof Constant && valid.get(1) instanceof Constant) {
                 Constant a = (Constant) valid.get(0);
                 Constant b = (Constant) valid.get(1);
-                return new Constant(a.getValue() * b.getValue());
+                return Constant.of(a.getValue() * b.getValue());
             }
 
         Collections.sort(valid, ExpressionSorter.DEFAULT);
@@ -98,8 +91,8 @@ public class Product extends Operator implements IMath {
         }
         if (numberOfSums == 1 && length == 2 && valid.size() < length + 1) {
             Sum sum = (Sum) valid.get(index);
-            Expression e1 = new Product(valid.get(0), sum.children[0]);
-            Expression e2 = new Product(valid.get(0), sum.children[1]);
+            Expression e1 = Product.of(valid.get(0), sum.children[0]);
+            Expression e2 = Product.of(valid.get(0), sum.children[1]);
             return Sum.create(e1, e2);
         }
 
@@ -113,9 +106,9 @@ public class Product extends Operator implements IMath {
                 valid.add(frac.numerator);
                 if (frac.denominator instanceof Power) {
                     Power denom = (Power) frac.denominator;
-                    valid.add(new Power(denom.expr, create(new Constant(-1d), denom.power)));
+                    valid.add(Power.of(denom.expr, create(Constant.of(-1d), denom.power)));
                 } else {
-                    valid.add(new Power(frac.denominator, new Constant(-1d)));
+                    valid.add(Power.of(frac.denominator, Constant.of(-1d)));
                 }
                 valid.remove(i);
             }
@@ -152,7 +145,7 @@ public class Product extends Operator implements IMath {
             }
         }
         if (total != 1d)
-            grouped.add(new Constant(total));
+            grouped.add(Constant.of(total));
 
         /*
          * transform everything into a power to make simplifications easier
@@ -162,7 +155,7 @@ public class Product extends Operator implements IMath {
             if (exp instanceof Power)
                 valid.set(i, exp.simplify());
             else
-                valid.set(i, new Power(exp.simplify(), new Constant(1d)));
+                valid.set(i, Power.of(exp.simplify(), Constant.of(1d)));
         }
 
         /*
@@ -182,7 +175,7 @@ public class Product extends Operator implements IMath {
                 Power p1 = powers.get(i);
                 Power p2 = powers.get(j);
                 if (p1.expr.equals(p2.expr)) {
-                    p1.power = Sum.create(p1.power, p2.power); // add powers
+                    powers.set(i, Power.of(p1.expr, Sum.create(p1.power, p2.power))); // add powers
                     powers.remove(j);
                     i--;
                 }
@@ -198,7 +191,7 @@ public class Product extends Operator implements IMath {
 
         if (grouped.isEmpty()) {
             System.out.println("Empty");
-            return new Constant(1d);
+            return Constant.of(1d);
         }
 
         // final simplification of every expression
@@ -227,12 +220,12 @@ public class Product extends Operator implements IMath {
             Expression[] num = grouped.toArray(new Expression[0]);
             Expression[] denom = denoms.toArray(new Expression[0]);
             if (num.length == 0)
-                return new Fraction(new Constant(1d), Product.create(denom));
-            return new Fraction(Product.create(num), Product.create(denom));
+                return Fraction.of(Constant.of(1d), Product.create(denom));
+            return Fraction.of(Product.create(num), Product.create(denom));
         }
 
         // final expression
-        return new Product(grouped.toArray(new Expression[0]));
+        return Product.of(grouped.toArray(new Expression[0]));
     }
 
     @Override
@@ -240,6 +233,16 @@ public class Product extends Operator implements IMath {
         return a * b;
     }
 
+    @Override
+    protected void operate(double[] result, double[] in, int n) {
+        BatchKernels.INSTANCE.multiply(result, in, n);
+    }
+
+    @Override
+    protected Interval operate(Interval a, Interval b) {
+        return Interval.multiply(a, b);
+    }
+
     @Override
     protected double neutral() {
         return 1d;
@@ -295,7 +298,7 @@ public class Product extends Operator implements IMath {
     }
 
     @Override
-    public Expression simplify() {
+    protected Expression computeSimplified() {
         return create(simplifiedChildren());
     }
 
@@ -312,7 +315,7 @@ public class Product extends Operator implements IMath {
         Expression[] exps = new Expression[length];
         for (int i = start; i < children.length; i++)
             exps[i - start] = children[i];
-        return new Product(exps);
+        return Product.of(exps);
     }
 
     /**
@@ -327,9 +330,9 @@ public class Product extends Operator implements IMath {
 
         Expression[] exps = new Expression[length];
         if (start == 1)
-            exps[0] = new Constant(1d);
+            exps[0] = Constant.of(1d);
         for (int i = 0; i < children.length; i++)
             exps[i + start] = children[i];
-        return new Product(exps);
+        return Product.of(exps);
     }
 }
\ No newline at end of file
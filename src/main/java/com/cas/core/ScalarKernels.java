@@ -0,0 +1,72 @@
+package com.cas.core;
+
+import net.jafama.FastMath;
+
+/**
+ * the default batch kernels, plain loops over FastMath. These give the exact
+ * same results as evaluating the samples one by one
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+final class ScalarKernels implements BatchKernels {
+
+    @Override
+    public void add(double[] result, double[] in, int n) {
+        for (int i = 0; i < n; i++)
+            result[i] += in[i];
+    }
+
+    @Override
+    public void multiply(double[] result, double[] in, int n) {
+        for (int i = 0; i < n; i++)
+            result[i] *= in[i];
+    }
+
+    @Override
+    public void divide(double[] result, double[] in, int n) {
+        for (int i = 0; i < n; i++)
+            result[i] /= in[i];
+    }
+
+    @Override
+    public void pow(double[] bases, double exponent, int n) {
+        for (int i = 0; i < n; i++)
+            bases[i] = FastMath.pow(bases[i], exponent);
+    }
+
+    @Override
+    public void pow(double base, double[] exponents, int n) {
+        for (int i = 0; i < n; i++)
+            exponents[i] = FastMath.pow(base, exponents[i]);
+    }
+
+    @Override
+    public void pow(double[] bases, double[] exponents, int n) {
+        for (int i = 0; i < n; i++)
+            bases[i] = FastMath.pow(bases[i], exponents[i]);
+    }
+
+    @Override
+    public void log(double[] values, int n) {
+        for (int i = 0; i < n; i++)
+            values[i] = FastMath.log(values[i]);
+    }
+
+    @Override
+    public void sin(double[] values, int n) {
+        for (int i = 0; i < n; i++)
+            values[i] = FastMath.sin(values[i]);
+    }
+
+    @Override
+    public void cos(double[] values, int n) {
+        for (int i = 0; i < n; i++)
+            values[i] = FastMath.cos(values[i]);
+    }
+
+    @Override
+    public void tan(double[] values, int n) {
+        for (int i = 0; i < n; i++)
+            values[i] = FastMath.tan(values[i]);
+    }
+}
@@ -0,0 +1,56 @@
+package com.cas.core;
+
+/**
+ * pool of scratch arrays used by batch evaluation. Every thread has its own
+ * pool and arrays are borrowed and released like a stack, which matches the
+ * recursive way the expression tree is evaluated. Arrays are kept between
+ * batches so once the pool has warmed up, evaluating does not allocate
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+final class ScratchPool {
+
+    private static final ThreadLocal<ScratchPool> POOLS = ThreadLocal.withInitial(ScratchPool::new);
+
+    private double[][] arrays = new double[16][]; // the pooled arrays
+    private int top = 0; // number of arrays currently borrowed
+
+    private ScratchPool() {
+    }
+
+    /**
+     * @return the pool of the current thread
+     */
+    static ScratchPool get() {
+        return POOLS.get();
+    }
+
+    /**
+     * borrow an array, it must be released once the caller is done with it
+     *
+     * @param n - minimum length of the array
+     * @return an array of at least n elements, the content is undefined
+     */
+    double[] borrow(int n) {
+        if (top == arrays.length) {
+            double[][] bigger = new double[arrays.length * 2][];
+            System.arraycopy(arrays, 0, bigger, 0, arrays.length);
+            arrays = bigger;
+        }
+
+        double[] array = arrays[top];
+        if (array == null || array.length < n) {
+            array = new double[n];
+            arrays[top] = array;
+        }
+        top++;
+        return array;
+    }
+
+    /**
+     * release the last borrowed array
+     */
+    void release() {
+        top--;
+    }
+}
@@ -6,10 +6,18 @@ import java.util.HashMap;
 
 public class Sign extends FixedInputFunction {
 
-    public Sign(Expression expr) {
+    private Sign(Expression expr) {
         super(ExpressionType.SIGN, expr);
     }
 
+    /**
+     * @param expr - the input
+     * @return the sign node of the input
+     */
+    public static Sign of(Expression expr) {
+        return ExpressionTable.intern(new Sign(expr));
+    }
+
     @Override
     public String toLatex() {
         return type + "\\left(" + expr.toLatex() + "\\right)";
@@ -31,10 +39,20 @@ public class Sign extends FixedInputFunction {
     }
 
     @Override
-    public boolean equals(Expression e) {
-        if (e instanceof Sign)
-            return expr.equals(((Sign) e).expr);
-        return false;
+    public double evaluate(double[] frame, VariableLayout layout) {
+        return FastMath.signum(expr.evaluate(frame, layout));
+    }
+
+    @Override
+    public void evaluateBatch(double[][] columns, int n, double[] out, VariableLayout layout) {
+        expr.evaluateBatch(columns, n, out, layout);
+        for (int i = 0; i < n; i++)
+            out[i] = FastMath.signum(out[i]);
+    }
+
+    @Override
+    public Interval evaluateInterval(IntervalFrame frame) {
+        return Interval.signum(expr.evaluateInterval(frame));
     }
 
     @Override
@@ -43,9 +61,9 @@ public class Sign extends FixedInputFunction {
     }
 
     @Override
-    public Expression simplify() {
+    protected Expression computeSimplified() {
         if (expr instanceof Constant)
-            return new Constant(FastMath.signum(((Constant) expr).getValue()));
-        return new Sign(expr.simplify());
+            return Constant.of(FastMath.signum(((Constant) expr).getValue()));
+        return Sign.of(expr.simplify());
     }
 }
\ No newline at end of file
@@ -5,8 +5,6 @@ import net.jafama.FastMath;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.List;
 
 /**
  * a class representing a finite sum
@@ -18,31 +16,15 @@ public class Sum extends Operator {
 //	private static final ExpressionSorter SORTER = new ExpressionSorter(true); // sorter
 
     private Sum(Expression... expressions) {
-        super(ExpressionType.SUM, '+', expressions);
-        reverseSortChildren();
-    }
-
-    private Sum(HashSet<Character> vars, String... strExpression) {
-        super(ExpressionType.SUM, '+', vars, strExpression);
-        reverseSortChildren();
+        super(ExpressionType.SUM, '+', reverseSorted(expressions));
     }
 
     /**
-     * function to create an expression node with the given children as strings,
-     * they still need to be parsed. The point of this function is to perform early
-     * refactoring to make life easier later on. It does not have to return a sum
-     * node if the refactored expression does not require a sum node
-     *
-     * @param vars          - the set of all variables
-     * @param strExpression - the array of strings to be parsed into expressions
-     * @return the refactored expression
+     * @param expressions - the children
+     * @return the sum node of the given children, without any simplification
      */
-    public static Expression create(HashSet<Character> vars, String... strExpression) {
-        if (strExpression.length == 0)
-            return null;
-        else if (strExpression.length == 1)
-            return Parser.generateExpression(strExpression[0], vars);
-        return new Sum(vars, strExpression);
+    static Sum of(Expression... expressions) {
+        return ExpressionTable.intern(new Sum(expressions));
     }
 
     /**
@@ -62,7 +44,7 @@ public class Sum extends Operator {
             return expressions[0];
 
         ArrayList<Expression> valid = new ArrayList<>();
-        Constant c0 = new Constant(0d);
+        Constant c0 = Constant.of(0d);
         for (int i = 0; i < expressions.length; i++)
             if (!expressions[i].equals(c0))
                 valid.add(expressions[i]);
@@ -75,7 +57,7 @@ public class Sum extends Operator {
             if (valid.get(0) instanceof Constant && valid.get(1) instanceof Constant) {
                 Constant a = (Constant) valid.get(0);
                 Constant b = (Constant) valid.get(1);
-                return new Constant(a.getValue() + b.getValue());
+                return Constant.of(a.getValue() + b.getValue());
             }
 
         Collections.sort(valid, ExpressionSorter.DEFAULT);
@@ -110,7 +92,7 @@ public class Sum extends Operator {
             }
         }
         if (total != 0d)
-            grouped.add(new Constant(total));
+            grouped.add(Constant.of(total));
 
         /*
          * transform everything into a product: 1*f(x)
@@ -122,7 +104,7 @@ public class Sum extends Operator {
                 if (!(p.children[0] instanceof Constant))
                     valid.set(i, p.addedConstant());
             } else {
-                valid.set(i, new Product(new Constant(1d), exp));
+                valid.set(i, Product.of(Constant.of(1d), exp));
             }
         }
 
@@ -150,7 +132,7 @@ public class Sum extends Operator {
                 Product rest2 = p2.removedConstant();
 
                 if (rest1.equals(rest2)) {
-                    products.set(i, Product.create(new Constant(c1.getValue() + c2.getValue()), rest1));
+                    products.set(i, Product.create(Constant.of(c1.getValue() + c2.getValue()), rest1));
                     products.remove(j);
                     i--;
                 }
@@ -165,7 +147,7 @@ public class Sum extends Operator {
 
         if (grouped.isEmpty()) {
             System.out.println("Empty");
-            return new Constant(0d);
+            return Constant.of(0d);
         }
 
         // final simplification of every expression
@@ -175,17 +157,18 @@ public class Sum extends Operator {
         Collections.sort(grouped, ExpressionSorter.DEFAULT); // sort
 
         // final expression
-        return new Sum(grouped.toArray(new Expression[0]));
+        return Sum.of(grouped.toArray(new Expression[0]));
     }
 
     /**
-     * sort the children in reverse
+     * sort the children in reverse, in place
+     *
+     * @return the given array
      */
-    private void reverseSortChildren() {
+    private static Expression[] reverseSorted(Expression[] children) {
         Arrays.sort(children, ExpressionSorter.DEFAULT);
-        List<Expression> reversed = Arrays.asList(children);
-        Collections.reverse(reversed);
-        children = reversed.toArray(children);
+        Collections.reverse(Arrays.asList(children));
+        return children;
     }
 
     @Override
@@ -193,6 +176,16 @@ public class Sum extends Operator {
         return a + b;
     }
 
+    @Override
+    protected void operate(double[] result, double[] in, int n) {
+        BatchKernels.INSTANCE.add(result, in, n);
+    }
+
+    @Override
+    protected Interval operate(Interval a, Interval b) {
+        return Interval.add(a, b);
+    }
+
     @Override
     protected double neutral() {
         return 0d;
@@ -232,7 +225,7 @@ public class Sum extends Operator {
     }
 
     @Override
-    public Expression simplify() {
+    protected Expression computeSimplified() {
         return create(simplifiedChildren());
     }
 }
\ No newline at end of file
@@ -19,7 +19,7 @@ public abstract class TrigonometricFunction extends FixedInputFunction {
      *
      * @param expr - expression inside the function (to compute)
      */
-    public TrigonometricFunction(ExpressionType type, Expression expr) {
+    protected TrigonometricFunction(ExpressionType type, Expression expr) {
         super(type, expr);
     }
 
@@ -28,6 +28,22 @@ public abstract class TrigonometricFunction extends FixedInputFunction {
         return compute(expr.evaluate(varValues));
     }
 
+    @Override
+    public double evaluate(double[] frame, VariableLayout layout) {
+        return compute(expr.evaluate(frame, layout));
+    }
+
+    @Override
+    public void evaluateBatch(double[][] columns, int n, double[] out, VariableLayout layout) {
+        expr.evaluateBatch(columns, n, out, layout);
+        compute(out, n);
+    }
+
+    @Override
+    public Interval evaluateInterval(IntervalFrame frame) {
+        return compute(expr.evaluateInterval(frame));
+    }
+
     @Override
     public String toString() {
         return type + "(" + expr + ")";
@@ -47,16 +63,6 @@ public abstract class TrigonometricFunction extends FixedInputFunction {
         return "\\" + type + "{" + expr.toLatex() + "}";
     }
 
-    @Override
-    public boolean equals(Expression e) {
-        if (e instanceof TrigonometricFunction) {
-            TrigonometricFunction func = (TrigonometricFunction) e;
-            if (type.equals(func.type))
-                return expr.equals(func.expr);
-        }
-        return false;
-    }
-
     /**
      * @return if the input needs surrounding brackets
      */
@@ -72,7 +78,7 @@ public abstract class TrigonometricFunction extends FixedInputFunction {
         if (expr instanceof Constant) {
             double result = compute(((Constant) expr).getValue());
             if (FastMath.floor(result) == result)
-                return new Constant(result);
+                return Constant.of(result);
         }
         return null;
     }
@@ -83,36 +89,75 @@ public abstract class TrigonometricFunction extends FixedInputFunction {
      */
     protected abstract double compute(double in);
 
+    /**
+     * @param in - bounds of the input to the trigonometric function
+     * @return bounds of the values of the trigonometric function
+     */
+    protected abstract Interval compute(Interval in);
+
+    /**
+     * compute the trigonometric function of every value, in place
+     *
+     * @param values - inputs to the trigonometric function
+     * @param n      - number of values
+     */
+    protected void compute(double[] values, int n) {
+        for (int i = 0; i < n; i++)
+            values[i] = compute(values[i]);
+    }
+
+    /**
+     * values[i] = 1 / values[i]
+     */
+    private static void invert(double[] values, int n) {
+        for (int i = 0; i < n; i++)
+            values[i] = 1.0d / values[i];
+    }
+
     /*
      * cosine function
      */
     public static final class Cos extends TrigonometricFunction {
-        public Cos(Expression expr) {
+        private Cos(Expression expr) {
             super(ExpressionType.COS, expr);
         }
 
+        public static Cos of(Expression expr) {
+            return ExpressionTable.intern(new Cos(expr));
+        }
+
         @Override
         protected double compute(double in) {
             return FastMath.cos(in);
         }
 
+        @Override
+        protected Interval compute(Interval in) {
+            return Interval.cos(in);
+        }
+
+        @Override
+        protected void compute(double[] values, int n) {
+            BatchKernels.INSTANCE.cos(values, n);
+        }
+
         @Override
         public Expression differentiate(char var) {
             return Product.create( // -1 * f' * sin(f)
-                    new Constant(-1d), // -1
+                    Constant.of(-1d), // -1
                     expr.differentiate(var), // f'
-                    new Sin(expr) // sin(f)
+                    Sin.of(expr) // sin(f)
             ); // end -1 * f' * sin(f)
         }
 
         @Override
-        public Expression simplify() {
+        protected Expression computeSimplified() {
             Constant eval = evaluate();
             if (eval != null)
                 return eval;
             if (expr instanceof InverseTrigonometricFunction.ArcCos)
                 return ((ArcCos) expr).expr.simplify();
-            return new Cos(expr.simplify());
+            return Cos.of(expr.simplify());
         }
     }
 
@@ -120,31 +165,45 @@ public abstract class TrigonometricFunction extends FixedInputFunction {
      * sine function
      */
     public static final class Sin extends TrigonometricFunction {
-        public Sin(Expression expr) {
+        private Sin(Expression expr) {
             super(ExpressionType.SIN, expr);
         }
 
+        public static Sin of(Expression expr) {
+            return ExpressionTable.intern(new Sin(expr));
+        }
+
         @Override
         protected double compute(double in) {
             return FastMath.sin(in);
         }
 
+        @Override
+        protected Interval compute(Interval in) {
+            return Interval.sin(in);
+        }
+
+        @Override
+        protected void compute(double[] values, int n) {
+            BatchKernels.INSTANCE.sin(values, n);
+        }
+
         @Override
         public Expression differentiate(char var) {
             return Product.create( // f' * cos(f)
                     expr.differentiate(var), // f'
-                    new Cos(expr) // cos(f)
+                    Cos.of(expr) // cos(f)
             ); // end f' * cos(f)
         }
 
         @Override
-        public Expression simplify() {
+        protected Expression computeSimplified() {
             Constant eval = evaluate();
             if (eval != null)
                 return eval;
             if (expr instanceof ArcSin)
                 return ((ArcSin) expr).expr.simplify();
-            return new Sin(expr.simplify());
+            return Sin.of(expr.simplify());
         }
     }
 
@@ -152,24 +211,38 @@ public abstract class TrigonometricFunction extends FixedInputFunction {
      * tangent function
      */
     public static final class Tan extends TrigonometricFunction {
-        public Tan(Expression expr) {
+        private Tan(Expression expr) {
             super(ExpressionType.TAN, expr);
         }
 
+        public static Tan of(Expression expr) {
+            return ExpressionTable.intern(new Tan(expr));
+        }
+
         @Override
         protected double compute(double in) {
             return FastMath.tan(in);
         }
 
+        @Override
+        protected Interval compute(Interval in) {
+            return Interval.tan(in);
+        }
+
+        @Override
+        protected void compute(double[] values, int n) {
+            BatchKernels.INSTANCE.tan(values, n);
+        }
+
         @Override
         public Expression differentiate(char var) {
 //			System.out.println("in tan");
 
             Expression p = Product.create( // f' * (sec(f))^2
                     expr.differentiate(var), // f'
-                    new Power( // (sec(f))^2
-                            new Sec(expr), // sec(f)
-                            new Constant(2d) // 2
+                    Power.of( // (sec(f))^2
+                            Sec.of(expr), // sec(f)
+                            Constant.of(2d) // 2
                     ) // end (sec(f))^2
             ); // end f' * (sec(f))^2
 //			System.out.println(p);
@@ -177,13 +250,13 @@ public abstract class TrigonometricFunction extends FixedInputFunction {
         }
 
         @Override
-        public Expression simplify() {
+        protected Expression computeSimplified() {
             Constant eval = evaluate();
             if (eval != null)
                 return eval;
             if (expr instanceof ArcTan)
                 return ((ArcTan) expr).expr.simplify();
-            return new Tan(expr.simplify());
+            return Tan.of(expr.simplify());
         }
     }
 
@@ -191,29 +264,44 @@ public abstract class TrigonometricFunction extends FixedInputFunction {
      * cosecant function
      */
     public static final class Csc extends TrigonometricFunction {
-        public Csc(Expression expr) {
+        private Csc(Expression expr) {
             super(ExpressionType.CSC, expr);
         }
 
+        public static Csc of(Expression expr) {
+            return ExpressionTable.intern(new Csc(expr));
+        }
+
         @Override
         protected double compute(double in) {
             return 1.0d / FastMath.sin(in);
         }
 
+        @Override
+        protected Interval compute(Interval in) {
+            return Interval.reciprocal(Interval.sin(in));
+        }
+
+        @Override
+        protected void compute(double[] values, int n) {
+            BatchKernels.INSTANCE.sin(values, n);
+            invert(values, n);
+        }
+
         @Override
         public Expression differentiate(char var) {
             return Product.create( // -1 * csc(f) * cot(f) * f'
-                    new Constant(-1d), // -1
+                    Constant.of(-1d), // -1
                     expr.differentiate(var), // f'
-                    new Csc(expr), // csc(f)
-                    new Cot(expr) // cot(f)
+                    Csc.of(expr), // csc(f)
+                    Cot.of(expr) // cot(f)
             ); // end csc(f) * cot(f) * f'
         }
 
         @Override
-        public Expression simplify() {
+        protected Expression computeSimplified() {
             Constant eval = evaluate();
-            return eval == null ? new Csc(expr.simplify()) : eval;
+            return eval == null ? Csc.of(expr.simplify()) : eval;
         }
     }
 
@@ -221,28 +309,43 @@ public abstract class TrigonometricFunction extends FixedInputFunction {
      * secant function
      */
     public static final class Sec extends TrigonometricFunction {
-        public Sec(Expression expr) {
+        private Sec(Expression expr) {
             super(ExpressionType.SEC, expr);
         }
 
+        public static Sec of(Expression expr) {
+            return ExpressionTable.intern(new Sec(expr));
+        }
+
         @Override
         protected double compute(double in) {
             return 1.0d / FastMath.cos(in);
         }
 
+        @Override
+        protected Interval compute(Interval in) {
+            return Interval.reciprocal(Interval.cos(in));
+        }
+
+        @Override
+        protected void compute(double[] values, int n) {
+            BatchKernels.INSTANCE.cos(values, n);
+            invert(values, n);
+        }
+
         @Override
         public Expression differentiate(char var) {
             return Product.create( // sec(f) * tan(f) * f'
                     expr.differentiate(var), // f'
-                    new Sec(expr), // sec(f)
-                    new Tan(expr) // tan(f)
+                    Sec.of(expr), // sec(f)
+                    Tan.of(expr) // tan(f)
             ); // end sec(f) * tan(f) * f'
         }
 
         @Override
-        public Expression simplify() {
+        protected Expression computeSimplified() {
             Constant eval = evaluate();
-            return eval == null ? new Sec(expr.simplify()) : eval;
+            return eval == null ? Sec.of(expr.simplify()) : eval;
         }
     }
 
@@ -250,31 +353,46 @@ public abstract class TrigonometricFunction extends FixedInputFunction {
      * cotangent function
      */
     public static final class Cot extends TrigonometricFunction {
-        public Cot(Expression expr) {
+        private Cot(Expression expr) {
             super(ExpressionType.COT, expr);
         }
 
+        public static Cot of(Expression expr) {
+            return ExpressionTable.intern(new Cot(expr));
+        }
+
         @Override
         protected double compute(double in) {
             return 1.0d / FastMath.tan(in);
         }
 
+        @Override
+        protected Interval compute(Interval in) {
+            return Interval.reciprocal(Interval.tan(in));
+        }
+
+        @Override
+        protected void compute(double[] values, int n) {
+            BatchKernels.INSTANCE.tan(values, n);
+            invert(values, n);
+        }
+
         @Override
         public Expression differentiate(char var) {
             return Product.create( // -1 * f' * (csc(f))^2
-                    new Constant(-1d), // -1
+                    Constant.of(-1d), // -1
                     expr.differentiate(var), // f'
-                    new Power( // (csc(f))^2
-                            new Csc(expr), // csc(f)
-                            new Constant(2d) // 2
+                    Power.of( // (csc(f))^2
+                            Csc.of(expr), // csc(f)
+                            Constant.of(2d) // 2
                     ) // end (csc(f))^2
             ); // end f' * (csc(f))^2
         }
 
         @Override
-        public Expression simplify() {
+        protected Expression computeSimplified() {
             Constant eval = evaluate();
-            return eval == null ? new Cot(expr.simplify()) : eval;
+            return eval == null ? Cot.of(expr.simplify()) : eval;
         }
     }
 }
\ No newline at end of file
@@ -11,13 +11,17 @@ public final class Variable extends Expression {
 
     private final char symbol; // variable character
 
-    public Variable(char sym) {
-        super(ExpressionType.VARIABLE);
+    private Variable(char sym) {
+        super(ExpressionType.VARIABLE, sym);
         symbol = sym;
     }
 
-    public Variable() {
-        this('x');
+    /**
+     * @param symbol - the variable character
+     * @return the variable node with the given symbol
+     */
+    public static Variable of(char symbol) {
+        return ExpressionTable.intern(new Variable(symbol));
     }
 
     @Override
@@ -25,6 +29,27 @@ public final class Variable extends Expression {
         return varValues.get(symbol);
     }
 
+    @Override
+    public double evaluate(double[] frame, VariableLayout layout) {
+        int slot = layout.slotOf(symbol);
+        if (slot < 0)
+            throw new IllegalArgumentException("No slot for variable " + symbol);
+        return frame[slot];
+    }
+
+    @Override
+    public void evaluateBatch(double[][] columns, int n, double[] out, VariableLayout layout) {
+        int slot = layout.slotOf(symbol);
+        if (slot < 0)
+            throw new IllegalArgumentException("No slot for variable " + symbol);
+        System.arraycopy(columns[slot], 0, out, 0, n);
+    }
+
+    @Override
+    public Interval evaluateInterval(IntervalFrame frame) {
+        return frame.get(symbol);
+    }
+
     @Override
     public String toString() {
         return Character.toString(symbol);
@@ -41,20 +66,28 @@ public final class Variable extends Expression {
     }
 
     @Override
-    public boolean equals(Expression e) {
-        if (e instanceof Variable)
-            return symbol == ((Variable) e).symbol;
-        return false;
+    Expression[] inputs() {
+        return NO_INPUTS;
+    }
+
+    @Override
+    char[] collectVariables() {
+        return new char[]{symbol};
+    }
+
+    @Override
+    protected boolean sameInputs(Expression e) {
+        return symbol == ((Variable) e).symbol;
     }
 
     @Override
     public Expression differentiate(char var) {
         double derivative = symbol == var ? 1d : 0d;
-        return new Constant(derivative);
+        return Constant.of(derivative);
     }
 
     @Override
-    public Expression simplify() {
+    protected Expression computeSimplified() {
         return this;
     }
 
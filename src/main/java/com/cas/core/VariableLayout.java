@@ -0,0 +1,88 @@
+package com.cas.core;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * maps every variable of an equation to an integer slot. The values of the
+ * variables are then stored in a primitive array (a frame) indexed by slot so
+ * evaluating an expression does not box any doubles or hash any characters
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+public final class VariableLayout {
+
+    private final char[] symbols; // the variables, the index of each one is its slot
+
+    /**
+     * constructor with the variables in slot order
+     *
+     * @param symbols - the variables
+     */
+    public VariableLayout(char... symbols) {
+        this.symbols = symbols.clone();
+    }
+
+    /**
+     * constructor with a collection of variables, slots are assigned in
+     * alphabetical order
+     *
+     * @param variables - the variables
+     */
+    public VariableLayout(Collection<Character> variables) {
+        TreeSet<Character> sorted = new TreeSet<>(variables);
+        symbols = new char[sorted.size()];
+        int i = 0;
+        for (char symbol : sorted)
+            symbols[i++] = symbol;
+    }
+
+    /**
+     * @param symbol - the variable
+     * @return the slot of the variable, -1 if it is not in this layout
+     */
+    public int slotOf(char symbol) {
+        for (int i = 0; i < symbols.length; i++)
+            if (symbols[i] == symbol)
+                return i;
+        return -1;
+    }
+
+    /**
+     * @param slot - the slot
+     * @return the variable at the given slot
+     */
+    public char symbolAt(int slot) {
+        return symbols[slot];
+    }
+
+    /**
+     * @return the number of slots
+     */
+    public int size() {
+        return symbols.length;
+    }
+
+    /**
+     * @return a new frame big enough to hold all the variables
+     */
+    public double[] newFrame() {
+        return new double[symbols.length];
+    }
+
+    /**
+     * copy the given values into their slots in the frame, variables without a
+     * value are left as they are
+     *
+     * @param varValues - map with the values of the variables
+     * @param frame     - the frame to fill
+     */
+    public void load(Map<Character, Double> varValues, double[] frame) {
+        for (int i = 0; i < symbols.length; i++) {
+            Double value = varValues.get(symbols[i]);
+            if (value != null)
+                frame[i] = value;
+        }
+    }
+}
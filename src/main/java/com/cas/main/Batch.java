@@ -0,0 +1,339 @@
+package com.cas.main;
+
+import com.cas.core.Equation;
+import com.cas.core.Parser;
+import com.cas.core.VariableLayout;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * headless batch mode: reads one expression per line from a file or stdin and
+ * writes one JSON line per expression to stdout with its simplified form, its
+ * LaTeX, its derivatives and its values at the given points. No window or GPU
+ * is needed.
+ * <p>
+ * The expressions are processed by a fixed pool of workers. The results are
+ * written in input order, and at most a bounded number of expressions are in
+ * flight so memory stays flat however long the input is.
+ * <p>
+ * Usage: --batch [file] [--at x=1,y=2]... [--derive xy] [--threads n] [--timeout s]
+ * <ul>
+ * <li>file: the expressions, stdin if missing or -</li>
+ * <li>--at: a point to evaluate the simplified expression at, can be repeated.
+ * A variable without a value is NaN</li>
+ * <li>--derive: the variables to differentiate with respect to, all the
+ * variables of each expression by default</li>
+ * <li>--threads: the number of workers, the number of processors by default</li>
+ * <li>--timeout: the seconds an expression may take once the expressions
+ * before it are written, 10 by default</li>
+ * </ul>
+ * An expression that fails to parse or fails in any other way gets a line with
+ * its error instead, and one that takes too long is cancelled and gets a line
+ * with the error timeout. A failure never stops the other expressions.
+ * Derivatives that fail and values that are not finite or fail are written as
+ * null
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+public final class Batch {
+
+    private static final int IN_FLIGHT_PER_THREAD = 64; // expressions waiting to be written, per worker
+
+    private final ArrayList<HashMap<Character, Double>> points = new ArrayList<>(); // the points of --at
+    private String derive; // the variables of --derive, null for all
+    private String file; // the input file, null for stdin
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private double timeout = 10; // seconds an expression may take, see write
+
+    private Batch() {
+    }
+
+    /**
+     * run the batch mode
+     *
+     * @param args - the command line arguments, --batch included
+     */
+    public static void run(String[] args) throws IOException {
+        Batch batch = new Batch();
+        batch.parseArguments(args);
+        batch.process();
+    }
+
+    /**
+     * read the options
+     */
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--batch":
+                    if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                        file = args[++i];
+                        if (file.equals("-"))
+                            file = null;
+                    }
+                    break;
+                case "--at":
+                    points.add(parsePoint(value(args, ++i)));
+                    break;
+                case "--derive":
+                    derive = value(args, ++i);
+                    break;
+                case "--timeout":
+                    timeout = Double.parseDouble(value(args, ++i));
+                    if (!(timeout > 0))
+                        throw new IllegalArgumentException("Timeout must be positive: " + timeout);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value(args, ++i));
+                    if (threads <= 0)
+                        throw new IllegalArgumentException("Threads must be positive: " + threads);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+    }
+
+    /**
+     * @return the value of an option
+     */
+    private static String value(String[] args, int i) {
+        if (i >= args.length)
+            throw new IllegalArgumentException("Missing value for " + args[i - 1]);
+        return args[i];
+    }
+
+    /**
+     * @param point - a point like x=1,y=2
+     * @return the value of each variable
+     */
+    private static HashMap<Character, Double> parsePoint(String point) {
+        HashMap<Character, Double> values = new HashMap<>();
+        for (String pair : point.split(",")) {
+            String[] parts = pair.split("=");
+            if (parts.length != 2 || parts[0].trim().length() != 1)
+                throw new IllegalArgumentException("Invalid point: " + point);
+            values.put(parts[0].trim().charAt(0), Double.parseDouble(parts[1].trim()));
+        }
+        return values;
+    }
+
+    /**
+     * read all the expressions, process them on the workers and write the
+     * results in order
+     */
+    private void process() throws IOException {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Job> inFlight = new ArrayDeque<>();
+        int window = threads * IN_FLIGHT_PER_THREAD;
+
+        try (BufferedReader in = file == null
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8);
+             Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)) {
+
+            String line;
+            int number = 0;
+            while ((line = in.readLine()) != null) {
+                number++;
+                if (line.trim().isEmpty())
+                    continue;
+
+                final String exp = line;
+                final int lineNumber = number;
+                inFlight.add(new Job(exp, lineNumber, workers.submit(() -> process(exp, lineNumber))));
+                if (inFlight.size() >= window) // wait for the oldest one, the order is kept
+                    write(inFlight.poll(), out);
+            }
+            while (!inFlight.isEmpty())
+                write(inFlight.poll(), out);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * write the result of an expression once it is ready. The results are
+     * written in order, so an expression that never ends would stop the whole
+     * stream: it is cancelled once it takes longer than the timeout after the
+     * expressions before it are written, and its worker is interrupted
+     */
+    private void write(Job job, Writer out) throws IOException {
+        try {
+            out.write(job.result.get((long) (timeout * 1e9), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+            job.result.cancel(true);
+            out.write(error(job.input, job.line, "timeout"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) { // a failure not caught by process, only this expression is lost
+            out.write(error(job.input, job.line, describe(e.getCause())));
+        }
+        out.write('\n');
+    }
+
+    /**
+     * @return the JSON line of an expression that failed
+     */
+    private static String error(String exp, int line, String message) {
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"line\":").append(line).append(",\"input\":");
+        quote(exp, json);
+        json.append(",\"error\":");
+        quote(message, json);
+        return json.append('}').toString();
+    }
+
+    /**
+     * @return the message of a failure, its type if it has no message like a
+     * stack overflow
+     */
+    private static String describe(Throwable e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    /**
+     * @param exp  - the expression
+     * @param line - the line of the expression in the input
+     * @return the JSON line of the expression
+     */
+    private String process(String exp, int line) {
+        Equation simplified;
+        try {
+            HashSet<Character> vars = new HashSet<>();
+            simplified = new Equation(Parser.parseExpression(exp, vars), vars).simplified();
+        } catch (RuntimeException | StackOverflowError e) { // like a syntax error or absurdly deep nesting
+            return error(exp, line, describe(e));
+        }
+
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"line\":").append(line).append(",\"input\":");
+        quote(exp, json);
+
+        json.append(",\"simplified\":");
+        quote(simplified.toFancyString(), json);
+        json.append(",\"latex\":");
+        quote(simplified.toLatex(), json);
+
+        json.append(",\"derivatives\":{");
+        String vars = derive != null ? derive : variables(simplified);
+        for (int i = 0; i < vars.length(); i++) {
+            if (i > 0)
+                json.append(',');
+            quote(Character.toString(vars.charAt(i)), json);
+            json.append(':');
+            try {
+                quote(simplified.derivative(vars.charAt(i)).toFancyString(), json);
+            } catch (RuntimeException | StackOverflowError e) { // like the derivative of a mod or a very deep one
+                json.append("null");
+            }
+        }
+        json.append('}');
+
+        if (!points.isEmpty()) {
+            json.append(",\"values\":[");
+            VariableLayout layout = simplified.getLayout();
+            double[] frame = new double[layout.size()];
+            double[] stack = null; // work array of the program, made in the try since lowering a deep tree can overflow
+            for (int p = 0; p < points.size(); p++) {
+                HashMap<Character, Double> point = points.get(p);
+                for (int slot = 0; slot < frame.length; slot++)
+                    frame[slot] = point.getOrDefault(layout.symbolAt(slot), Double.NaN);
+                if (p > 0)
+                    json.append(',');
+                double value;
+                try {
+                    if (stack == null)
+                        stack = new double[simplified.getWorkSize()];
+                    value = simplified.valueAt(frame, stack); // shared subexpressions computed once
+                } catch (RuntimeException | StackOverflowError e) { // absurdly deep nesting
+                    value = Double.NaN;
+                }
+                if (Double.isFinite(value))
+                    json.append(value);
+                else
+                    json.append("null");
+            }
+            json.append(']');
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * @return the variables of the equation, sorted
+     */
+    private static String variables(Equation eq) {
+        VariableLayout layout = eq.getLayout();
+        StringBuilder vars = new StringBuilder(layout.size());
+        for (int slot = 0; slot < layout.size(); slot++)
+            vars.append(layout.symbolAt(slot));
+        return vars.toString();
+    }
+
+    /**
+     * an expression being processed
+     */
+    private static final class Job {
+        private final String input;
+        private final int line;
+        private final Future<String> result;
+
+        Job(String input, int line, Future<String> result) {
+            this.input = input;
+            this.line = line;
+            this.result = result;
+        }
+    }
+
+    /**
+     * append a string as a JSON string
+     */
+    private static void quote(String s, StringBuilder json) {
+        json.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20)
+                        json.append(String.format("\\u%04x", (int) c));
+                    else
+                        json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
@@ -5,7 +5,8 @@ import com.cas.rendering.core.Renderer;
 import java.io.IOException;
 
 /**
- * main class, launches the whole application
+ * main class, launches the whole application, or the headless batch mode with
+ * --batch (see {@link Batch})
  *
  * @author Abd-El-Aziz Zayed
  */
@@ -13,6 +14,11 @@ public class CAS {
     public static void main(String[] args) throws IOException {
 //        TeXFormula formula = new TeXFormula("z = xy");
 //        formula.createBufferedImage(TeXConstants.STYLE_DISPLAY, 5, null, null);
+        for (String arg : args)
+            if (arg.equals("--batch")) {
+                Batch.run(args);
+                return;
+            }
         new Renderer();
     }
 }
\ No newline at end of file
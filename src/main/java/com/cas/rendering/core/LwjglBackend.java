@@ -0,0 +1,209 @@
+package com.cas.rendering.core;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL15;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * renders with the OpenGL bindings of LWJGL, needs the GL context of the
+ * display to be current
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+public final class LwjglBackend implements RenderBackend {
+
+    @Override
+    public void initialize() {
+        GL11.glClearColor(0.0f, 0.0f, 0.0f, 1.0f);
+        GL11.glClearDepth(1.0f);
+        GL11.glEnable(GL11.GL_DEPTH_TEST);
+        GL11.glDepthFunc(GL11.GL_LEQUAL);
+
+        GL11.glEnable(GL11.GL_BLEND);
+        GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+
+        GL11.glEnable(GL13.GL_MULTISAMPLE);
+    }
+
+    @Override
+    public void clear() {
+        GL11.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
+    }
+
+    @Override
+    public void project(double[] matrix) {
+        GL11.glMatrixMode(GL11.GL_PROJECTION);
+        GL11.glLoadIdentity();
+        GL11.glMultMatrixd(matrix);
+        GL11.glMatrixMode(GL11.GL_MODELVIEW);
+    }
+
+    @Override
+    public void projectOrthographic(double left, double right, double bottom, double top, double near, double far) {
+        GL11.glMatrixMode(GL11.GL_PROJECTION);
+        GL11.glLoadIdentity();
+        GL11.glOrtho(left, right, bottom, top, near, far);
+        GL11.glMatrixMode(GL11.GL_MODELVIEW);
+    }
+
+    @Override
+    public void loadIdentity() {
+        GL11.glLoadIdentity();
+    }
+
+    @Override
+    public void pushMatrix() {
+        GL11.glPushMatrix();
+    }
+
+    @Override
+    public void popMatrix() {
+        GL11.glPopMatrix();
+    }
+
+    @Override
+    public void translate(double x, double y, double z) {
+        GL11.glTranslated(x, y, z);
+    }
+
+    @Override
+    public void rotate(double angle, double x, double y, double z) {
+        GL11.glRotated(angle, x, y, z);
+    }
+
+    @Override
+    public void scale(double x, double y, double z) {
+        GL11.glScaled(x, y, z);
+    }
+
+    @Override
+    public void lineWidth(float width) {
+        GL11.glLineWidth(width);
+    }
+
+    @Override
+    public void color(float r, float g, float b, float a) {
+        GL11.glColor4d(r, g, b, a);
+    }
+
+    @Override
+    public void drawLine(double x0, double y0, double z0, double x1, double y1, double z1) {
+        GL11.glBegin(GL11.GL_LINES);
+        GL11.glVertex3d(x0, y0, z0);
+        GL11.glVertex3d(x1, y1, z1);
+        GL11.glEnd();
+    }
+
+    @Override
+    public int createBuffer() {
+        return GL15.glGenBuffers();
+    }
+
+    @Override
+    public void deleteBuffer(int buffer) {
+        GL15.glDeleteBuffers(buffer);
+    }
+
+    @Override
+    public void bindBuffer(int buffer) {
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, buffer);
+    }
+
+    @Override
+    public void allocateBuffer(long bytes) {
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, bytes, GL15.GL_DYNAMIC_DRAW);
+    }
+
+    @Override
+    public void uploadBuffer(FloatBuffer data) {
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, data, GL15.GL_STATIC_DRAW);
+    }
+
+    @Override
+    public void updateBuffer(FloatBuffer data) {
+        GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, data);
+    }
+
+    @Override
+    public void bindIndexBuffer(int buffer) {
+        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, buffer);
+    }
+
+    @Override
+    public void uploadIndices(IntBuffer indices) {
+        GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, indices, GL15.GL_STATIC_DRAW);
+    }
+
+    @Override
+    public void enableVertices(int components) {
+        GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+        GL11.glVertexPointer(components, GL11.GL_FLOAT, 0, 0);
+    }
+
+    @Override
+    public void disableVertices() {
+        GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+    }
+
+    @Override
+    public void drawArrays(Primitive primitive, int first, int count) {
+        GL11.glDrawArrays(mode(primitive), first, count);
+    }
+
+    @Override
+    public void drawElements(Primitive primitive, int count) {
+        GL11.glDrawElements(mode(primitive), count, GL11.GL_UNSIGNED_INT, 0);
+    }
+
+    /**
+     * @return the OpenGL drawing mode of the primitive
+     */
+    private static int mode(Primitive primitive) {
+        switch (primitive) {
+            case LINES:
+                return GL11.GL_LINES;
+            case LINE_STRIP:
+                return GL11.GL_LINE_STRIP;
+            case TRIANGLES:
+                return GL11.GL_TRIANGLES;
+            default:
+                return GL11.GL_TRIANGLE_STRIP;
+        }
+    }
+
+    @Override
+    public void setWireframe(boolean wireframe) {
+        GL11.glPolygonMode(GL11.GL_FRONT_AND_BACK, wireframe ? GL11.GL_LINE : GL11.GL_FILL);
+    }
+
+    @Override
+    public int createTexture(int width, int height, ByteBuffer rgba) {
+        int texture = GL11.glGenTextures();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA8, width, height, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, rgba);
+        return texture;
+    }
+
+    @Override
+    public void updateTexture(int texture, int x, int y, int width, int height, ByteBuffer rgba) {
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+        GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, x, y, width, height, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, rgba);
+    }
+
+    @Override
+    public void deleteTexture(int texture) {
+        GL11.glDeleteTextures(texture);
+    }
+}
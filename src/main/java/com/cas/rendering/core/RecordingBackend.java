@@ -0,0 +1,229 @@
+package com.cas.rendering.core;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * backend that draws nothing and only counts the calls made to it, the draw
+ * calls, the vertices drawn and the bytes uploaded. Needs no display or GL
+ * context, so whole frames can be rendered headless to be tested or profiled.
+ * Like OpenGL, it must only be used by the render thread
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+public final class RecordingBackend implements RenderBackend {
+
+    private long calls; // calls of any kind
+    private long drawCalls; // calls drawing vertices, lines included
+    private long verticesDrawn; // vertices of all the draw calls
+    private long bytesUploaded; // bytes copied to buffers and textures
+    private int nextId = 1; // id of the next buffer or texture, 0 is no object
+    private int buffers, textures; // live buffers and textures
+
+    /**
+     * reset the counters, the live buffers and textures are kept
+     */
+    public void reset() {
+        calls = drawCalls = verticesDrawn = bytesUploaded = 0;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getDrawCalls() {
+        return drawCalls;
+    }
+
+    public long getVerticesDrawn() {
+        return verticesDrawn;
+    }
+
+    public long getBytesUploaded() {
+        return bytesUploaded;
+    }
+
+    /**
+     * @return the number of buffers created and not deleted
+     */
+    public int getBuffers() {
+        return buffers;
+    }
+
+    /**
+     * @return the number of textures created and not deleted
+     */
+    public int getTextures() {
+        return textures;
+    }
+
+    @Override
+    public String toString() {
+        return "RecordingBackend[calls=" + calls + ", drawCalls=" + drawCalls + ", vertices=" + verticesDrawn
+                + ", bytesUploaded=" + bytesUploaded + ", buffers=" + buffers + ", textures=" + textures + "]";
+    }
+
+    @Override
+    public void initialize() {
+        calls++;
+    }
+
+    @Override
+    public void clear() {
+        calls++;
+    }
+
+    @Override
+    public void project(double[] matrix) {
+        calls++;
+    }
+
+    @Override
+    public void projectOrthographic(double left, double right, double bottom, double top, double near, double far) {
+        calls++;
+    }
+
+    @Override
+    public void loadIdentity() {
+        calls++;
+    }
+
+    @Override
+    public void pushMatrix() {
+        calls++;
+    }
+
+    @Override
+    public void popMatrix() {
+        calls++;
+    }
+
+    @Override
+    public void translate(double x, double y, double z) {
+        calls++;
+    }
+
+    @Override
+    public void rotate(double angle, double x, double y, double z) {
+        calls++;
+    }
+
+    @Override
+    public void scale(double x, double y, double z) {
+        calls++;
+    }
+
+    @Override
+    public void lineWidth(float width) {
+        calls++;
+    }
+
+    @Override
+    public void color(float r, float g, float b, float a) {
+        calls++;
+    }
+
+    @Override
+    public void drawLine(double x0, double y0, double z0, double x1, double y1, double z1) {
+        calls++;
+        drawCalls++;
+        verticesDrawn += 2;
+    }
+
+    @Override
+    public int createBuffer() {
+        calls++;
+        buffers++;
+        return nextId++;
+    }
+
+    @Override
+    public void deleteBuffer(int buffer) {
+        calls++;
+        buffers--;
+    }
+
+    @Override
+    public void bindBuffer(int buffer) {
+        calls++;
+    }
+
+    @Override
+    public void allocateBuffer(long bytes) {
+        calls++;
+    }
+
+    @Override
+    public void uploadBuffer(FloatBuffer data) {
+        calls++;
+        bytesUploaded += (long) data.remaining() * Float.BYTES;
+    }
+
+    @Override
+    public void updateBuffer(FloatBuffer data) {
+        calls++;
+        bytesUploaded += (long) data.remaining() * Float.BYTES;
+    }
+
+    @Override
+    public void bindIndexBuffer(int buffer) {
+        calls++;
+    }
+
+    @Override
+    public void uploadIndices(IntBuffer indices) {
+        calls++;
+        bytesUploaded += (long) indices.remaining() * Integer.BYTES;
+    }
+
+    @Override
+    public void enableVertices(int components) {
+        calls++;
+    }
+
+    @Override
+    public void disableVertices() {
+        calls++;
+    }
+
+    @Override
+    public void drawArrays(Primitive primitive, int first, int count) {
+        calls++;
+        drawCalls++;
+        verticesDrawn += count;
+    }
+
+    @Override
+    public void drawElements(Primitive primitive, int count) {
+        calls++;
+        drawCalls++;
+        verticesDrawn += count;
+    }
+
+    @Override
+    public void setWireframe(boolean wireframe) {
+        calls++;
+    }
+
+    @Override
+    public int createTexture(int width, int height, ByteBuffer rgba) {
+        calls++;
+        textures++;
+        if (rgba != null)
+            bytesUploaded += rgba.remaining();
+        return nextId++;
+    }
+
+    @Override
+    public void updateTexture(int texture, int x, int y, int width, int height, ByteBuffer rgba) {
+        calls++;
+        bytesUploaded += rgba.remaining();
+    }
+
+    @Override
+    public void deleteTexture(int texture) {
+        calls++;
+        textures--;
+    }
+}
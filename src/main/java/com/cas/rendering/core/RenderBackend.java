@@ -0,0 +1,175 @@
+package com.cas.rendering.core;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * the graphics calls made to render the scene: the grid, the plots and their
+ * textures. The renderer and the plots only talk to the backend given by
+ * {@link Renderer#getBackend()}, so the scene can be rendered with OpenGL or
+ * recorded without a display to be benchmarked. The GUI is drawn by ImGui and
+ * does not go through the backend
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+public interface RenderBackend {
+
+    /**
+     * set up the depth test, blending and multi-sampling and the clear color,
+     * once before the first frame
+     */
+    void initialize();
+
+    /**
+     * clear the color and depth of the frame
+     */
+    void clear();
+
+    /**
+     * replace the projection by the given matrix
+     *
+     * @param matrix - 4x4 matrix in column major order
+     */
+    void project(double[] matrix);
+
+    /**
+     * replace the projection by an orthographic projection
+     */
+    void projectOrthographic(double left, double right, double bottom, double top, double near, double far);
+
+    /**
+     * reset the model view transformation
+     */
+    void loadIdentity();
+
+    void pushMatrix();
+
+    void popMatrix();
+
+    void translate(double x, double y, double z);
+
+    /**
+     * @param angle - angle of the rotation, in degrees
+     */
+    void rotate(double angle, double x, double y, double z);
+
+    void scale(double x, double y, double z);
+
+    void lineWidth(float width);
+
+    void color(float r, float g, float b, float a);
+
+    /**
+     * draw a single line segment in the current color
+     */
+    void drawLine(double x0, double y0, double z0, double x1, double y1, double z1);
+
+    /**
+     * @return the id of a new vertex buffer
+     */
+    int createBuffer();
+
+    void deleteBuffer(int buffer);
+
+    /**
+     * bind the vertex buffer the next buffer calls apply to and the vertices are
+     * read from, 0 unbinds it
+     */
+    void bindBuffer(int buffer);
+
+    /**
+     * allocate the bound buffer without data, for data updated every frame
+     *
+     * @param bytes - size of the buffer
+     */
+    void allocateBuffer(long bytes);
+
+    /**
+     * replace the bound buffer by the given data
+     *
+     * @param data - the floats from the position to the limit are copied
+     */
+    void uploadBuffer(FloatBuffer data);
+
+    /**
+     * overwrite the start of the bound buffer with the given data
+     *
+     * @param data - the floats from the position to the limit are copied
+     */
+    void updateBuffer(FloatBuffer data);
+
+    /**
+     * bind the index buffer the next index calls apply to and the indices are
+     * read from, 0 unbinds it
+     */
+    void bindIndexBuffer(int buffer);
+
+    /**
+     * replace the bound index buffer by the given indices
+     *
+     * @param indices - the ints from the position to the limit are copied
+     */
+    void uploadIndices(IntBuffer indices);
+
+    /**
+     * read the vertices from the bound buffer
+     *
+     * @param components - number of floats in each vertex
+     */
+    void enableVertices(int components);
+
+    void disableVertices();
+
+    /**
+     * draw vertices of the bound buffer
+     *
+     * @param primitive - how the vertices are connected
+     * @param first     - index of the first vertex
+     * @param count     - number of vertices
+     */
+    void drawArrays(Primitive primitive, int first, int count);
+
+    /**
+     * draw vertices of the bound buffer in the order of the bound index buffer
+     *
+     * @param primitive - how the vertices are connected
+     * @param count     - number of indices
+     */
+    void drawElements(Primitive primitive, int count);
+
+    /**
+     * @param wireframe - true to draw only the edges of the triangles
+     */
+    void setWireframe(boolean wireframe);
+
+    /**
+     * @param width  - width of the image
+     * @param height - height of the image
+     * @param rgba   - the pixels, row after row, 4 bytes each, null to leave
+     *               them undefined
+     * @return the id of a new texture holding the image
+     */
+    int createTexture(int width, int height, ByteBuffer rgba);
+
+    /**
+     * overwrite a rectangle of a texture
+     *
+     * @param texture - the texture
+     * @param x       - left of the rectangle
+     * @param y       - top of the rectangle
+     * @param width   - width of the rectangle
+     * @param height  - height of the rectangle
+     * @param rgba    - the pixels of the rectangle, row after row, 4 bytes each
+     */
+    void updateTexture(int texture, int x, int y, int width, int height, ByteBuffer rgba);
+
+    void deleteTexture(int texture);
+
+    /**
+     * the ways vertices are connected when drawn
+     */
+    enum Primitive {
+        LINES, LINE_STRIP, TRIANGLES, TRIANGLE_STRIP
+    }
+}
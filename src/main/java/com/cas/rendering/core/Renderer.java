@@ -5,15 +5,15 @@ import com.cas.rendering.plots.CurvePair;
 import com.cas.rendering.plots.SurfaceTrio;
 import com.cas.rendering.util.Grid;
 import net.jafama.FastMath;
-import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GL13;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 
 /**
  * This is the core of the application, where everything meets. This class is in
- * charge of rendering everything.
+ * charge of rendering everything. The scene is drawn through a
+ * {@link RenderBackend}, OpenGL by default, so frames can also be rendered
+ * headless with a {@link RecordingBackend}
  *
  * @author Abd-El-Aziz Zayed
  */
@@ -26,6 +26,7 @@ public class Renderer {
     public static double GRID_MIN = -1d, GRID_MAX = 1d;
 
     private static Mode mode = Mode.RENDER_3D; // Current graphing mode
+    private static RenderBackend backend = new LwjglBackend(); // receives all the calls drawing the scene
 
     public Renderer() {
         Display.initialize();
@@ -33,12 +34,25 @@ public class Renderer {
         Display.destroy();
     }
 
+    /**
+     * @return the backend drawing the scene
+     */
+    public static RenderBackend getBackend() {
+        return backend;
+    }
+
+    /**
+     * @param backend - the backend to draw the scene with, must be set before any
+     *                plot is created
+     */
+    public static void setBackend(RenderBackend backend) {
+        Renderer.backend = backend;
+    }
+
     /**
      * switch between 2D and 3D
      */
     public static void switchMode() {
-        GL11.glMatrixMode(GL11.GL_PROJECTION);
-        GL11.glLoadIdentity();
         switch (mode) {
             case RENDER_2D:
                 mode = Mode.RENDER_3D;
@@ -46,10 +60,9 @@ public class Renderer {
                 break;
             case RENDER_3D:
                 mode = Mode.RENDER_2D;
-                GL11.glOrtho(0, 1, 0, 1, -1, 1);
+                backend.projectOrthographic(0, 1, 0, 1, -1, 1);
                 break;
         }
-        GL11.glMatrixMode(GL11.GL_MODELVIEW);
     }
 
     /**
@@ -69,7 +82,7 @@ public class Renderer {
                 0, 0, (zFar + zNear) / (zNear - zFar), -1, //
                 0, 0, 2 * zFar * zNear / (zNear - zFar), 0 //
         };
-        GL11.glMultMatrixd(transformation);
+        backend.project(transformation);
     }
 
     /**
@@ -77,22 +90,9 @@ public class Renderer {
      */
     public void start() {
 
-        GL11.glMatrixMode(GL11.GL_PROJECTION);
-        GL11.glLoadIdentity();
         perspective(FOV, ASPECT, NEAR_PLANE, FAR_PLANE);
-
-        GL11.glClearColor(0.0f, 0.0f, 0.0f, 1.0f);
-        GL11.glClearDepth(1.0f);
-        GL11.glEnable(GL11.GL_DEPTH_TEST);
-        GL11.glDepthFunc(GL11.GL_LEQUAL);
-
-        GL11.glEnable(GL11.GL_BLEND);
-        GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-
-        GL11.glEnable(GL13.GL_MULTISAMPLE);
-
-        GL11.glMatrixMode(GL11.GL_MODELVIEW);
-        GL11.glLoadIdentity();
+        backend.initialize();
+        backend.loadIdentity();
 
 
         ArrayList<CurvePair> curves = new ArrayList<>();
@@ -114,9 +114,9 @@ public class Renderer {
             double deltaTime = (time > 0) ? (currentTime - time) : 1f / 60f;
             time = currentTime;
 
-            GL11.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT); // clear the framebuffer
+            backend.clear(); // clear the framebuffer
 
-            GL11.glPushMatrix();
+            backend.pushMatrix();
             if (mode == Mode.RENDER_3D) {
                 input3D(gui, grid3D);
                 render3D(surfaces, grid3D, varValues3D);
@@ -126,7 +126,7 @@ public class Renderer {
                 render2D(curves, grid2D, varValues2D);
                 gui.render2D(deltaTime, curves, varValues2D, grid2D);
             }
-            GL11.glPopMatrix();
+            backend.popMatrix();
 
             Display.update();
         }
@@ -138,37 +138,37 @@ public class Renderer {
     }
 
     /**
-     * render the 3D scene
+     * render the 3D scene, needs no display with a headless backend
      *
      * @param surfaces  - all the surfaces to render
      * @param grid      - the data used to generate the render data
      * @param varValues - the parameter-value pair
      */
-    private void render3D(ArrayList<SurfaceTrio> surfaces, Grid grid, HashMap<Character, Double> varValues) {
+    public static void render3D(ArrayList<SurfaceTrio> surfaces, Grid grid, HashMap<Character, Double> varValues) {
         transform3D(grid);
 
-        GL11.glLineWidth(1f);
+        backend.lineWidth(1f);
         grid.render();
 
-        GL11.glLineWidth(0.8f);
+        backend.lineWidth(0.8f);
         for (SurfaceTrio trio : surfaces)
             trio.update(grid, varValues);
     }
 
     /**
-     * render the 2D scene
+     * render the 2D scene, needs no display with a headless backend
      *
      * @param curves    - all the curves to render
      * @param grid      - the data used to generate the render data
      * @param varValues - the parameter-value pair
      */
-    private void render2D(ArrayList<CurvePair> curves, Grid grid, HashMap<Character, Double> varValues) {
+    public static void render2D(ArrayList<CurvePair> curves, Grid grid, HashMap<Character, Double> varValues) {
         transform2D(grid);
 
-        GL11.glLineWidth(1f);
+        backend.lineWidth(1f);
         grid.render();
 
-        GL11.glLineWidth(3f);
+        backend.lineWidth(3f);
         /// Render Curves ///
         for (CurvePair pair : curves)
             pair.update(grid, varValues);
@@ -179,15 +179,15 @@ public class Renderer {
      *
      * @param grid
      */
-    private void transform3D(Grid grid) {
-        GL11.glTranslatef(0.0f, 0.0f, -15.0f);
-        GL11.glRotatef(-75f, 1f, 0f, 0f);
+    private static void transform3D(Grid grid) {
+        backend.translate(0.0d, 0.0d, -15.0d);
+        backend.rotate(-75d, 1d, 0d, 0d);
 
-        GL11.glRotated(grid.getXRotation(), 1d, 0d, 0d);
-        GL11.glRotated(grid.getZRotation(), 0d, 0d, 1d);
+        backend.rotate(grid.getXRotation(), 1d, 0d, 0d);
+        backend.rotate(grid.getZRotation(), 0d, 0d, 1d);
 
         float scale = 8.0f;
-        GL11.glScaled(scale / grid.getX().getLength(), scale / grid.getY().getLength(), scale / grid.getZ().getLength());
+        backend.scale(scale / grid.getX().getLength(), scale / grid.getY().getLength(), scale / grid.getZ().getLength());
     }
 
     /**
@@ -195,9 +195,9 @@ public class Renderer {
      *
      * @param grid
      */
-    private void transform2D(Grid grid) {
-        GL11.glScaled(1.0d / grid.getX().getLength(), 1.0d / grid.getY().getLength(), 1.0d);
-        GL11.glTranslated(-grid.getX().getMin(), -grid.getY().getMin(), 0.0d);
+    private static void transform2D(Grid grid) {
+        backend.scale(1.0d / grid.getX().getLength(), 1.0d / grid.getY().getLength(), 1.0d);
+        backend.translate(-grid.getX().getMin(), -grid.getY().getMin(), 0.0d);
     }
 
     /**
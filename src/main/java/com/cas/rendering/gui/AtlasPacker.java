@@ -0,0 +1,274 @@
+package com.cas.rendering.gui;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * packs rectangles in square pages, in shelves: rows of rectangles of about
+ * the same height, stacked from the top of the page. Only does the
+ * bookkeeping, it knows nothing about textures, so it can be used and checked
+ * without a GL context.
+ * <p>
+ * Freed space is reused: the free spans of a shelf are merged, neighbouring
+ * empty shelves are merged and can be split again for any height, empty
+ * shelves at the bottom of a page give their space back to the page and empty
+ * pages are dropped
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+public final class AtlasPacker {
+
+    private final int size; // width and height of a page
+    private final ArrayList<Page> pages = new ArrayList<>();
+    private int nextPageId = 0;
+
+    /**
+     * constructor
+     *
+     * @param size - width and height of a page
+     */
+    public AtlasPacker(int size) {
+        if (size <= 0)
+            throw new IllegalArgumentException("Page size must be positive: " + size);
+        this.size = size;
+    }
+
+    /**
+     * find room for a rectangle, in a new page if no page has room for it
+     *
+     * @param width  - width of the rectangle
+     * @param height - height of the rectangle
+     * @return where the rectangle is, null if it is larger than a page
+     */
+    public Region allocate(int width, int height) {
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("Invalid size: " + width + "x" + height);
+        if (width > size || height > size)
+            return null;
+
+        for (Page page : pages) {
+            Region region = page.allocate(width, height);
+            if (region != null)
+                return region;
+        }
+        Page page = new Page(nextPageId++);
+        pages.add(page);
+        return page.allocate(width, height);
+    }
+
+    /**
+     * give the room of a rectangle back
+     *
+     * @param region - a region allocated by this packer
+     * @return true if the page of the region is now empty and was dropped
+     */
+    public boolean free(Region region) {
+        if (region.shelf == null)
+            throw new IllegalArgumentException("Region already freed: " + region);
+
+        Page page = region.page;
+        page.free(region);
+        region.shelf = null;
+        if (page.shelves.isEmpty()) {
+            pages.remove(page);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the width and height of a page
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the number of pages holding at least one rectangle
+     */
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * @return the area of all the allocated rectangles
+     */
+    public long getUsedArea() {
+        long area = 0;
+        for (Page page : pages)
+            area += page.usedArea;
+        return area;
+    }
+
+    /**
+     * where a rectangle is packed
+     */
+    public static final class Region {
+
+        private final Page page;
+        private Shelf shelf; // null once freed
+        private final int x, y, width, height;
+
+        private Region(Page page, Shelf shelf, int x, int y, int width, int height) {
+            this.page = page;
+            this.shelf = shelf;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        /**
+         * @return the id of the page, the ids of dropped pages are not reused
+         */
+        public int getPage() {
+            return page.id;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public String toString() {
+            return "Region[page=" + page.id + ", x=" + x + ", y=" + y + ", " + width + "x" + height + "]";
+        }
+    }
+
+    /**
+     * a page, its shelves sorted from the top
+     */
+    private final class Page {
+
+        private final int id;
+        private final ArrayList<Shelf> shelves = new ArrayList<>();
+        private int top = 0; // the bottom of the last shelf, the rest of the page is unused
+        private long usedArea = 0;
+
+        Page(int id) {
+            this.id = id;
+        }
+
+        Region allocate(int width, int height) {
+            // the used shelf wasting the least height, a shelf too high for the rectangle wastes too much
+            Shelf best = null;
+            for (Shelf shelf : shelves)
+                if (shelf.used > 0 && height <= shelf.height && height * 4 >= shelf.height * 3 && shelf.fits(width)
+                        && (best == null || shelf.height < best.height))
+                    best = shelf;
+
+            if (best == null) { // an empty shelf high enough, split to the height of the rectangle
+                for (int i = 0; i < shelves.size() && best == null; i++) {
+                    Shelf shelf = shelves.get(i);
+                    if (shelf.used == 0 && height <= shelf.height) {
+                        if (shelf.height > height)
+                            shelves.add(i + 1, new Shelf(shelf.y + height, shelf.height - height));
+                        shelf.height = height;
+                        best = shelf;
+                    }
+                }
+            }
+
+            if (best == null) { // a new shelf below the others
+                if (top + height > size)
+                    return null;
+                best = new Shelf(top, height);
+                shelves.add(best);
+                top += height;
+            }
+
+            int x = best.take(width);
+            usedArea += (long) width * height;
+            return new Region(this, best, x, best.y, width, height);
+        }
+
+        void free(Region region) {
+            Shelf shelf = region.shelf;
+            shelf.release(region.x, region.width);
+            usedArea -= (long) region.width * region.height;
+            if (shelf.used > 0)
+                return;
+
+            int i = shelves.indexOf(shelf);
+            if (i + 1 < shelves.size() && shelves.get(i + 1).used == 0) // merge with the empty shelf below
+                shelf.height += shelves.remove(i + 1).height;
+            if (i > 0 && shelves.get(i - 1).used == 0) { // and with the empty shelf above
+                shelves.get(i - 1).height += shelf.height;
+                shelves.remove(i--);
+            }
+            if (i == shelves.size() - 1) // the last shelf gives its space back to the page
+                top = shelves.remove(i).y;
+        }
+    }
+
+    /**
+     * a row of rectangles, with the spans of the row still free
+     */
+    private final class Shelf {
+
+        private final int y;
+        private int height;
+        private int used = 0; // number of rectangles in the shelf
+        private final TreeMap<Integer, Integer> free = new TreeMap<>(); // width of each free span by its x
+
+        Shelf(int y, int height) {
+            this.y = y;
+            this.height = height;
+            free.put(0, size);
+        }
+
+        boolean fits(int width) {
+            for (int span : free.values())
+                if (span >= width)
+                    return true;
+            return false;
+        }
+
+        /**
+         * @return the x of the first free span wide enough, the caller made sure
+         * there is one
+         */
+        int take(int width) {
+            for (Map.Entry<Integer, Integer> span : free.entrySet()) {
+                int x = span.getKey();
+                int spanWidth = span.getValue();
+                if (spanWidth >= width) {
+                    free.remove(x);
+                    if (spanWidth > width)
+                        free.put(x + width, spanWidth - width);
+                    used++;
+                    return x;
+                }
+            }
+            throw new IllegalStateException("No span of width " + width);
+        }
+
+        void release(int x, int width) {
+            Map.Entry<Integer, Integer> after = free.ceilingEntry(x);
+            if (after != null && after.getKey() == x + width) { // merge with the span after
+                free.remove(after.getKey());
+                width += after.getValue();
+            }
+            Map.Entry<Integer, Integer> before = free.floorEntry(x);
+            if (before != null && before.getKey() + before.getValue() == x) { // and with the span before
+                x = before.getKey();
+                width += before.getValue();
+            }
+            free.put(x, width);
+            used--;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.cas.rendering.core.Display;
 import com.cas.rendering.core.Renderer;
 import com.cas.rendering.plots.Curve;
 import com.cas.rendering.plots.CurvePair;
+import com.cas.rendering.plots.DerivativePlot;
 import com.cas.rendering.plots.Plot;
 import com.cas.rendering.plots.Surface;
 import com.cas.rendering.plots.SurfaceTrio;
@@ -285,16 +286,14 @@ public class GUIRenderer {
         for (int i = 0; i < curves.size(); i++) {
             CurvePair curve = curves.get(i);
             Curve func = curve.getFunction();
-            Curve der = curve.getDerivative();
             String name = (i + 1) + " Function y = " + func.getEquation().toFancyString() + "##F2" + i;
             if (ImGui.collapsingHeader(name, ImGuiTreeNodeFlags.DefaultOpen)) {
 
                 if (drawPlotInfo(func, "Plot function##PlotF2" + i, "Color##Func2C" + i))
                     mods = true;
 
-                if (der != null)
-                    if (drawPlotInfo(der, "Plot derivative w.r.t. x##DX" + i, "Color##DXC" + i))
-                        mods = true;
+                if (drawDerivativeInfo(curve.getDerivative(), "Plot derivative w.r.t. x##DX" + i, "Color##DXC" + i))
+                    mods = true;
 
                 if (ImGui.button("Delete Function##closeF2" + i)) {
                     curves.remove(i);
@@ -376,21 +375,17 @@ public class GUIRenderer {
         for (int i = 0; i < surfaces.size(); i++) {
             SurfaceTrio curve = surfaces.get(i);
             Surface func = curve.getFunction();
-            Surface xDer = curve.getxDerivative();
-            Surface yDer = curve.getyDerivative();
             String name = (i + 1) + " Function z = " + func.getEquation().toFancyString() + "##F3" + i;
             if (ImGui.collapsingHeader(name, ImGuiTreeNodeFlags.DefaultOpen)) {
 
                 if (drawPlotInfo(func, "Plot function##Plot3F" + i, "Color##Func3C" + i))
                     mods = true;
 
-                if (xDer != null)
-                    if (drawPlotInfo(xDer, "Plot derivative w.r.t. x##PDX" + i, "Color##PDXC" + i))
-                        mods = true;
+                if (drawDerivativeInfo(curve.getxDerivative(), "Plot derivative w.r.t. x##PDX" + i, "Color##PDXC" + i))
+                    mods = true;
 
-                if (yDer != null)
-                    if (drawPlotInfo(yDer, "Plot derivative w.r.t. y##PDY" + i, "Color##PDYC" + i))
-                        mods = true;
+                if (drawDerivativeInfo(curve.getyDerivative(), "Plot derivative w.r.t. y##PDY" + i, "Color##PDYC" + i))
+                    mods = true;
 
                 if (ImGui.button("Delete Function##closeF3" + i)) {
                     surfaces.remove(i);
@@ -465,10 +460,37 @@ public class GUIRenderer {
         }
         boolean mod = ImGui.colorEdit4(colorEditLabel, plot.getColor(), ImGuiColorEditFlags.Float);
         Texture tex = plot.getTexture();
-        ImGui.image(tex.getID(), tex.getWidth(), tex.getHeight());
+        ImGui.image(tex.getID(), tex.getWidth(), tex.getHeight(), tex.getU0(), tex.getV0(), tex.getU1(), tex.getV1());
         return mod;
     }
 
+    /**
+     * draw the info of a derivative. Until it is asked for, only its check box is
+     * drawn and it is not computed, then it is drawn like any plot once it is
+     * ready. A derivative that failed is replaced by a disabled line saying why
+     *
+     * @param derivative     - the derivative
+     * @param checkBoxLabel  - the label for the visibility toggle
+     * @param colorEditLabel - the label for the color edit
+     * @return true if the color edit was edited
+     */
+    private boolean drawDerivativeInfo(DerivativePlot<?> derivative, String checkBoxLabel, String colorEditLabel) {
+        if (derivative.isRequested()) {
+            Plot plot = derivative.getPlot();
+            if (plot != null)
+                return drawPlotInfo(plot, checkBoxLabel, colorEditLabel);
+            if (derivative.isFailed())
+                ImGui.textDisabled("No derivative: " + derivative.getFailureMessage());
+            else
+                ImGui.textDisabled("Differentiating...");
+            return false;
+        }
+
+        if (ImGui.checkbox(checkBoxLabel, false))
+            derivative.request();
+        return false;
+    }
+
     /**
      * Begin the window frame. This should be called every start of a frame
      *
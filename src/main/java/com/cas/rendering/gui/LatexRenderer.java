@@ -1,15 +1,31 @@
 package com.cas.rendering.gui;
 
 import com.cas.core.Equation;
+import com.cas.core.LruCache;
 import org.scilab.forge.jlatexmath.TeXConstants;
 import org.scilab.forge.jlatexmath.TeXFormula;
 
+import javax.imageio.ImageIO;
 import java.awt.Color;
 import java.awt.Image;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 /**
  * class to render expressions and equations in latex
+ * <p>
+ * The images rendered by {@link #render(String)} are cached in memory by latex
+ * and text size, so adding a function again does not typeset it again. They can
+ * also be cached on disk as PNG files, in the directory given by the system
+ * property cas.latex.cache or {@link #setCacheDirectory(Path)}, so they
+ * survive restarts
  *
  * @author Abd-El-Aziz Zayed
  */
@@ -17,6 +33,9 @@ public class LatexRenderer {
 
     public static int textSize = 30; // the size of the LaTeX text
 
+    private static final LruCache<String, RgbaImage> CACHE = new LruCache<>(128); // images by text size and latex
+    private static volatile Path cacheDirectory = directoryOf(System.getProperty("cas.latex.cache"));
+
     public static BufferedImage toImage(Equation eq, String prefix, String postfix) {
         return toImage(prefix + eq.toLatex() + postfix);
     }
@@ -26,14 +45,107 @@ public class LatexRenderer {
     }
 
     /**
-     * create a buffered image from the given latex string
+     * create a buffered image from the given latex string, typeset every time,
+     * see {@link #render(String)} for the cached images
      *
      * @param latex - the latex to render
      * @return the image
      */
     public static BufferedImage toImage(String latex) {
+        return typeset(latex, textSize);
+    }
+
+    /**
+     * get the image of the given latex string at the current text size, from the
+     * memory cache, then the disk cache, and only typeset it if it is in neither
+     *
+     * @param latex - the latex to render
+     * @return the image, shared with every other caller of the same latex
+     */
+    public static RgbaImage render(String latex) {
+        int size = textSize;
+        return CACHE.get(size + "\n" + latex, key -> load(latex, size));
+    }
+
+    /**
+     * @return the image from the disk cache, or typeset and saved to it
+     */
+    private static RgbaImage load(String latex, int size) {
+        Path directory = cacheDirectory;
+        if (directory == null)
+            return RgbaImage.of(typeset(latex, size));
+
+        Path file = directory.resolve(fileName(size + "\n" + latex));
+        if (Files.isRegularFile(file)) {
+            try {
+                BufferedImage image = ImageIO.read(file.toFile());
+                if (image != null)
+                    return RgbaImage.of(image);
+            } catch (IOException e) {
+                e.printStackTrace(); // typeset it again
+            }
+        }
+
+        BufferedImage image = typeset(latex, size);
+        Path temporary = null;
+        try {
+            Files.createDirectories(directory);
+            temporary = Files.createTempFile(directory, "latex", ".tmp");
+            ImageIO.write(image, "png", temporary.toFile());
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE); // never half written
+        } catch (IOException e) {
+            e.printStackTrace(); // the image is only cached in memory
+            try {
+                if (temporary != null)
+                    Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+            }
+        }
+        return RgbaImage.of(image);
+    }
+
+    private static BufferedImage typeset(String latex, int size) {
         TeXFormula formula = new TeXFormula(latex);
-        Image image = formula.createBufferedImage(TeXConstants.STYLE_DISPLAY, textSize, Color.WHITE, Color.BLACK);
+        Image image = formula.createBufferedImage(TeXConstants.STYLE_DISPLAY, size, Color.WHITE, Color.BLACK);
         return (BufferedImage) image;
     }
-}
\ No newline at end of file
+
+    /**
+     * @return the name of the cached file of a key, its SHA-256 so any latex
+     * makes a valid file name
+     */
+    private static String fileName(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(hash.length * 2 + 4);
+            for (byte b : hash)
+                name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return name.append(".png").toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every Java platform has SHA-256
+        }
+    }
+
+    private static Path directoryOf(String directory) {
+        return directory == null || directory.isEmpty() ? null : Paths.get(directory);
+    }
+
+    /**
+     * @param directory - the directory of the disk cache, null to only cache the
+     *                  images in memory
+     */
+    public static void setCacheDirectory(Path directory) {
+        cacheDirectory = directory;
+    }
+
+    public static Path getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    /**
+     * @return the memory cache, to see how well it works
+     */
+    public static LruCache<String, RgbaImage> getCache() {
+        return CACHE;
+    }
+}
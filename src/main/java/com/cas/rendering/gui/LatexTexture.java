@@ -0,0 +1,98 @@
+package com.cas.rendering.gui;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * the texture of a latex string, typeset in the background the first time it
+ * is shown. Until the image is ready a blank placeholder is shown, then the
+ * image is copied into the {@link TextureAtlas} by the render thread the next
+ * time the texture is asked for. A formula that is never shown, like one in a
+ * collapsed header, is never typeset. Must only be used by the render thread
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+public final class LatexTexture {
+
+    private static final ExecutorService TYPESETTER = Executors.newSingleThreadExecutor(task -> {
+        Thread typesetter = new Thread(task, "latex-typesetter"); // one thread, jlatexmath is not meant to be shared
+        typesetter.setDaemon(true);
+        return typesetter;
+    });
+    private static Texture placeholder; // blank texture shown while typesetting, shared
+
+    private final String latex;
+    private Future<RgbaImage> image; // the image being typeset, null if not requested yet
+    private Texture texture; // the uploaded image, null until it is ready
+
+    /**
+     * constructor, nothing is typeset yet
+     *
+     * @param latex - the latex to render
+     */
+    public LatexTexture(String latex) {
+        this.latex = latex;
+    }
+
+    /**
+     * @return the latex
+     */
+    public String getLatex() {
+        return latex;
+    }
+
+    /**
+     * get the texture to show this frame, starts typesetting the latex the first
+     * time
+     *
+     * @return the texture of the latex if it is ready, the placeholder otherwise
+     */
+    public Texture getTexture() {
+        if (texture != null)
+            return texture;
+
+        if (image == null)
+            image = TYPESETTER.submit(() -> LatexRenderer.render(latex));
+        else if (image.isDone()) {
+            try {
+                texture = TextureAtlas.getAtlas().add(image.get());
+                return texture;
+            } catch (ExecutionException e) {
+                e.printStackTrace(); // keep the placeholder
+                texture = getPlaceholder();
+                return texture;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return getPlaceholder();
+    }
+
+    /**
+     * @return true if the texture of the latex is shown
+     */
+    public boolean isReady() {
+        return texture != null && texture != placeholder;
+    }
+
+    private static Texture getPlaceholder() {
+        if (placeholder == null)
+            placeholder = new Texture(RgbaImage.of(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB)));
+        return placeholder;
+    }
+
+    /**
+     * clean the memory allocated for the texture, and stop typesetting it
+     */
+    public void cleanup() {
+        if (image != null)
+            image.cancel(false);
+        if (texture != null && texture != placeholder)
+            texture.cleanup();
+        texture = null;
+        image = null;
+    }
+}
@@ -0,0 +1,78 @@
+package com.cas.rendering.gui;
+
+import org.lwjgl.BufferUtils;
+
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+
+/**
+ * an image converted to RGBA bytes, ready to be uploaded as a texture. It is
+ * immutable, so one image can be cached and turned into any number of textures
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+public final class RgbaImage {
+
+    private final int width;
+    private final int height;
+    private final ByteBuffer pixels; // row after row, 4 bytes each, only handed out as duplicates
+
+    private RgbaImage(int width, int height, ByteBuffer pixels) {
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+    }
+
+    /**
+     * convert a buffered image to RGBA bytes
+     *
+     * @param image - the image
+     * @return the converted image
+     */
+    public static RgbaImage of(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] argb = new int[width * height];
+        image.getRGB(0, 0, width, height, argb, 0, width);
+
+        ByteBuffer pixels = BufferUtils.createByteBuffer(width * height * 4);
+        for (int pixel : argb) {
+            pixels.put((byte) ((pixel >> 16) & 0xFF));
+            pixels.put((byte) ((pixel >> 8) & 0xFF));
+            pixels.put((byte) (pixel & 0xFF));
+            pixels.put((byte) ((pixel >> 24) & 0xFF));
+        }
+        pixels.flip();
+
+        return new RgbaImage(width, height, pixels);
+    }
+
+    /**
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the pixels, row after row, 4 bytes each, ready to be read from the
+     * position to the limit. The bytes are shared and must not be written to
+     */
+    public ByteBuffer getPixels() {
+        return pixels.duplicate(); // own position and limit
+    }
+
+    /**
+     * @return the number of bytes of the pixels
+     */
+    public int getByteCount() {
+        return pixels.capacity();
+    }
+}
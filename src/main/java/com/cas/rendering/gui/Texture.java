@@ -1,17 +1,14 @@
 package com.cas.rendering.gui;
 
-import org.lwjgl.BufferUtils;
-import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GL12;
+import com.cas.rendering.core.Renderer;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.nio.ByteBuffer;
 
 /**
- * this class holds a texture
+ * this class holds a texture, or a region of a page of the {@link TextureAtlas}
  *
  * @author Abd-El-Aziz Zayed
  */
@@ -20,14 +17,40 @@ public class Texture {
     private final int width;
     private final int height;
     private final int ID; // texture ID for OpenGL
+    private final float u0, v0, u1, v1; // texture coordinates of the top left and bottom right corners
+    private final AtlasPacker.Region region; // the region of the atlas, null if the texture is its own
 
     /*
      * construct texture from buffered image
      */
     public Texture(BufferedImage image) {
+        this(RgbaImage.of(image));
+    }
+
+    /*
+     * construct texture from an image already converted to RGBA
+     */
+    public Texture(RgbaImage image) {
         width = image.getWidth();
         height = image.getHeight();
-        ID = loadTexture(image);
+        ID = Renderer.getBackend().createTexture(width, height, image.getPixels());
+        u0 = v0 = 0f;
+        u1 = v1 = 1f;
+        region = null;
+    }
+
+    /*
+     * construct texture from a region of a page of the atlas
+     */
+    Texture(int pageID, int pageSize, AtlasPacker.Region region, int x, int y, int width, int height) {
+        this.width = width;
+        this.height = height;
+        ID = pageID;
+        u0 = (float) x / pageSize;
+        v0 = (float) y / pageSize;
+        u1 = (float) (x + width) / pageSize;
+        v1 = (float) (y + height) / pageSize;
+        this.region = region;
     }
 
     /*
@@ -58,47 +81,29 @@ public class Texture {
         return ID;
     }
 
-    /**
-     * generate an OpenGL texture ID from the given buffered image
-     *
-     * @param image - image data
-     * @return the texture ID
-     */
-    private int loadTexture(BufferedImage image) {
-        int[] pixels = new int[width * height];
-        image.getRGB(0, 0, width, height, pixels, 0, width);
-
-        ByteBuffer buffer = BufferUtils.createByteBuffer(width * height * 4);
-
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int pixel = pixels[y * width + x];
-                buffer.put((byte) ((pixel >> 16) & 0xFF));
-                buffer.put((byte) ((pixel >> 8) & 0xFF));
-                buffer.put((byte) (pixel & 0xFF));
-                buffer.put((byte) ((pixel >> 24) & 0xFF));
-            }
-        }
-        buffer.flip();
-
-        int textureID = GL11.glGenTextures();
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureID);
-
-        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
-        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+    public float getU0() {
+        return u0;
+    }
 
-        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
-        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+    public float getV0() {
+        return v0;
+    }
 
-        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA8, width, height, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, buffer);
+    public float getU1() {
+        return u1;
+    }
 
-        return textureID;
+    public float getV1() {
+        return v1;
     }
 
     /**
      * clean the memory allocated for this texture when no longer needed
      */
     public void cleanup() {
-        GL11.glDeleteTextures(ID);
+        if (region != null)
+            TextureAtlas.getAtlas().free(region);
+        else
+            Renderer.getBackend().deleteTexture(ID);
     }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.cas.rendering.gui;
+
+import com.cas.rendering.core.RenderBackend;
+import com.cas.rendering.core.Renderer;
+import org.lwjgl.BufferUtils;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+
+/**
+ * holds the images of the equations in a few large textures, so the GUI draws
+ * all of them from the same texture instead of switching texture for every
+ * plot. Each image is a region of a page, given by its texture coordinates.
+ * The regions are packed by an {@link AtlasPacker}, and a page is deleted once
+ * all its images are. Must only be used by the render thread
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+public final class TextureAtlas {
+
+    public static final int PAGE_SIZE = 1024; // width and height of a page
+    private static final int PADDING = 1; // transparent pixels around each image, so filtering never reads a neighbour
+
+    private static final TextureAtlas atlas = new TextureAtlas(); // singleton instance
+
+    private final AtlasPacker packer = new AtlasPacker(PAGE_SIZE);
+    private final HashMap<Integer, Integer> pages = new HashMap<>(); // texture of each page
+
+    private TextureAtlas() {
+    }
+
+    /**
+     * @return the only atlas
+     */
+    public static TextureAtlas getAtlas() {
+        return atlas;
+    }
+
+    /**
+     * copy an image into a page, a new page is created if none has room for it
+     *
+     * @param image - the image
+     * @return the region of the image, or a texture of its own if it is too large
+     * for a page
+     */
+    public Texture add(RgbaImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        AtlasPacker.Region region = packer.allocate(width + 2 * PADDING, height + 2 * PADDING);
+        if (region == null)
+            return new Texture(image);
+
+        RenderBackend backend = Renderer.getBackend();
+        Integer page = pages.get(region.getPage());
+        if (page == null) {
+            page = backend.createTexture(PAGE_SIZE, PAGE_SIZE, null); // every region is written before it is shown
+            pages.put(region.getPage(), page);
+        }
+        backend.updateTexture(page, region.getX(), region.getY(), region.getWidth(), region.getHeight(), pad(image));
+
+        return new Texture(page, PAGE_SIZE, region, region.getX() + PADDING, region.getY() + PADDING, width, height);
+    }
+
+    /**
+     * @return the pixels of the image with a transparent border, so the pixels
+     * left in the region by an older image are overwritten
+     */
+    private static ByteBuffer pad(RgbaImage image) {
+        int row = image.getWidth() * 4;
+        int paddedRow = row + 2 * PADDING * 4;
+        ByteBuffer padded = BufferUtils.createByteBuffer(paddedRow * (image.getHeight() + 2 * PADDING)); // zeroed
+        ByteBuffer pixels = image.getPixels();
+        for (int y = 0; y < image.getHeight(); y++) {
+            pixels.limit(pixels.position() + row);
+            padded.position((y + PADDING) * paddedRow + PADDING * 4);
+            padded.put(pixels);
+            pixels.limit(pixels.capacity());
+        }
+        padded.clear();
+        return padded;
+    }
+
+    /**
+     * give the region of an image back, deleting its page if it was the last
+     * image of the page
+     *
+     * @param region - the region of the image
+     */
+    void free(AtlasPacker.Region region) {
+        if (packer.free(region))
+            Renderer.getBackend().deleteTexture(pages.remove(region.getPage()));
+    }
+
+    /**
+     * @return the number of pages
+     */
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * @return the fraction of the area of the pages used by images
+     */
+    public double getOccupancy() {
+        int count = pages.size();
+        return count == 0 ? 0 : (double) packer.getUsedArea() / ((long) count * PAGE_SIZE * PAGE_SIZE);
+    }
+}
@@ -1,7 +1,6 @@
 package com.cas.rendering.plots;
 
 import com.cas.core.Equation;
-import com.cas.rendering.gui.LatexRenderer;
 import com.cas.rendering.util.Grid;
 
 import java.util.HashMap;
@@ -14,22 +13,14 @@ import java.util.HashMap;
 public class CurvePair {
 
     private final Curve function;
-    private Curve derivative; // the function and its derivative
+    private final DerivativePlot<Curve> derivative; // the derivative, only computed when shown
 
     public CurvePair(Equation eq) {
         String latex = "y = " + eq.toLatex();
         Equation simplified = eq.simplified();
 
-        function = new Curve(simplified, LatexRenderer.toImage(latex), true);
-        try {
-            Equation der = simplified.derivative('x');
-            latex = "y_x = " + der.toLatex();
-            derivative = new Curve(der, LatexRenderer.toImage(latex), false);
-        } catch (Exception e) {
-            e.printStackTrace();
-            derivative = null;
-        }
-
+        function = new Curve(simplified, latex, true);
+        derivative = new DerivativePlot<>(simplified, 'x', "y_x", (der, derLatex) -> new Curve(der, derLatex, true));
     }
 
     /**
@@ -40,8 +31,7 @@ public class CurvePair {
      */
     public void update(Grid grid, HashMap<Character, Double> varValues) {
         function.update(grid, varValues);
-        if (derivative != null)
-            derivative.update(grid, varValues);
+        derivative.update(grid, varValues);
     }
 
     /**
@@ -52,9 +42,9 @@ public class CurvePair {
     }
 
     /**
-     * @return the derivative
+     * @return the derivative, not computed until its plot is asked for
      */
-    public Curve getDerivative() {
+    public DerivativePlot<Curve> getDerivative() {
         return derivative;
     }
 
@@ -63,7 +53,6 @@ public class CurvePair {
      */
     public void cleanup() {
         function.cleanup();
-        if (derivative != null)
-            derivative.cleanup();
+        derivative.cleanup();
     }
 }
\ No newline at end of file
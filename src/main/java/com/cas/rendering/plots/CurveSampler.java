@@ -0,0 +1,299 @@
+package com.cas.rendering.plots;
+
+import com.cas.core.CompiledExpression;
+import com.cas.core.Equation;
+import com.cas.core.Interval;
+import com.cas.core.IntervalFrame;
+import com.cas.rendering.util.Grid;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * computes the vertices of the line strip of a curve. The base samples are
+ * taken at fixed points of the world, x = k * step, and kept in a ring buffer
+ * between frames. Dragging the view only moves the window over the samples, so
+ * only the samples that come into view are evaluated; everything is evaluated
+ * again when the step changes (zoom) or when a parameter changes.
+ * <p>
+ * Between two base samples the curve is refined adaptively: an interval is cut
+ * in half while its midpoint is off the straight line by more than a fraction
+ * of the view height, or while its ends are far apart, down to a maximum
+ * depth. An interval at the maximum depth whose jump did not shrink when it
+ * was halved holds a discontinuity (tan, floor, mod, sign...) and gets a NaN
+ * vertex that breaks the line strip. The refinement of an interval is kept as
+ * long as its two base samples are, and the number of evaluations spent on
+ * refining is capped every frame. An interval whose two base samples are off
+ * the view on the same side is only refined if interval arithmetic cannot
+ * prove the whole curve between them stays off the view
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+public class CurveSampler extends Sampler {
+
+    private static final double STEP_TOLERANCE = 1e-9; // relative change of the step still seen as the same zoom
+    private static final int MAX_DEPTH = 5; // maximum number of times an interval is cut in half
+    private static final double BEND = 0.002; // distance of a midpoint to the line, relative to the view height
+    private static final double SPREAD = 0.05; // height of an interval cut in half, relative to the view height
+    private static final double JUMP = 0.75; // part of the height a jump keeps when its interval is halved
+    private static final double CLAMP = 1e3; // limit of the vertices, in view heights away from the view
+    private static final int EVALUATION_BUDGET = 10000; // evaluations spent on refining every frame
+    private static final float[] STRAIGHT = new float[0]; // refinement of an interval that needs none
+
+    private final int xSlot; // slot of x in the columns
+    private final double[] ring; // the value of sample k is at floorMod(k, ring.length)
+    private final float[][] refined; // the points inside the interval [k, k + 1], null if not refined yet
+    private final double[] parameters; // the parameter values the samples were computed with, by slot
+    private final double[] frame; // values of the variables for the evaluations of the refinement
+    private final CompiledExpression compiled; // the equation in bytecode, for the evaluations of the refinement
+    private final Interval[] bounds; // bounds of the curve inside the interval [k, k + 1], null if not computed
+    private final IntervalFrame box; // intervals of the variables for the bounds, the parameters are single values
+    private final float[] points; // points of the interval being refined
+    private int count; // floats in points
+    private int budget; // evaluations left for refining this frame
+    private boolean deferred; // an interval was left to refine on a later frame
+    private double step; // distance between two samples
+    private double height; // height of the view the refinements were computed with
+    private long first, end; // the samples [first, end) are in the ring, none if first == end
+
+    public CurveSampler(Equation eq, int resolution) {
+        super(eq, resolution);
+        xSlot = layout.slotOf('x');
+        ring = new double[resolution + 2]; // one extra sample on each side
+        refined = new float[ring.length][];
+        parameters = new double[layout.size()];
+        frame = new double[layout.size()];
+        compiled = eq.compile();
+        bounds = new Interval[ring.length];
+        box = new IntervalFrame(layout);
+        for (int i = 0; i < layout.size(); i++)
+            box.set(i, 0d, 0d);
+        points = new float[maxRefinedPoints() * 2];
+    }
+
+    /**
+     * @return the maximum number of points inside an interval, every midpoint
+     * and a break in every interval at the maximum depth
+     */
+    private static int maxRefinedPoints() {
+        return (1 << MAX_DEPTH) * 2;
+    }
+
+    /**
+     * @param resolution - the number of base steps along x
+     * @return the maximum number of floats put in the buffer by a sampler of
+     * the given resolution
+     */
+    public static int getFloatCount(int resolution) {
+        int samples = resolution + 2;
+        return (samples + (samples - 1) * maxRefinedPoints()) * 2;
+    }
+
+    @Override
+    public int getFloatCount() {
+        return getFloatCount(resolution);
+    }
+
+    @Override
+    public void sample(Grid grid, HashMap<Character, Double> varValues, FloatBuffer buffer) {
+        double dx = grid.getX().getLength() / resolution;
+        if (parametersChanged(varValues) || Math.abs(dx - step) > STEP_TOLERANCE * step) {
+            step = dx;
+            end = first;
+            Arrays.fill(refined, null);
+            Arrays.fill(bounds, null);
+        }
+
+        double h = grid.getY().getLength();
+        if (Math.abs(h - height) > STEP_TOLERANCE * height) { // the tolerances of the refinement changed
+            height = h;
+            Arrays.fill(refined, null);
+        }
+
+        // the samples in view, with one extra sample on each side
+        long lo = (long) Math.floor(grid.getX().getMin() / step) - 1;
+        long hi = lo + ring.length;
+
+        if (first == end || hi <= first || lo >= end)
+            evaluate(lo, hi, varValues);
+        else {
+            if (lo < first)
+                evaluate(lo, first, varValues);
+            if (hi > end)
+                evaluate(end, hi, varValues);
+        }
+        first = lo;
+        end = hi;
+
+        double ymin = grid.getY().getMin() - CLAMP * height;
+        double ymax = grid.getY().getMax() + CLAMP * height;
+        budget = EVALUATION_BUDGET;
+        deferred = false;
+        for (long k = lo; k < hi; k++) {
+            if (isCancelled()) // the samples and refinements kept so far are still valid
+                return;
+
+            double y = ring[slot(k)];
+            buffer.put((float) (k * step));
+            buffer.put(vertex(y, ymin, ymax));
+
+            if (k + 1 < hi) {
+                float[] inside = refinement(k, grid.getY().getMin(), grid.getY().getMax());
+                for (int i = 0; i < inside.length; i += 2) {
+                    buffer.put(inside[i]);
+                    buffer.put(vertex(inside[i + 1], ymin, ymax));
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean hasPendingWork() {
+        return deferred;
+    }
+
+    /**
+     * @return the y coordinate of a vertex, NaN breaks the line
+     */
+    private static float vertex(double y, double ymin, double ymax) {
+        if (Double.isNaN(y))
+            return Float.NaN;
+        return (float) Math.max(ymin, Math.min(ymax, y));
+    }
+
+    /**
+     * @return the points inside the interval [k, k + 1], refined if it was not
+     * yet and the budget allows it. The points are not clamped
+     */
+    private float[] refinement(long k, double bottom, double top) {
+        int s = slot(k);
+        if (refined[s] != null)
+            return refined[s];
+
+        double y0 = ring[s], y1 = ring[slot(k + 1)];
+        if ((y0 < bottom && y1 < bottom) || (y0 > top && y1 > top)) {
+            if (bounds[s] == null) {
+                if (xSlot >= 0)
+                    box.set(xSlot, k * step, (k + 1) * step);
+                bounds[s] = equation.valuesIn(box);
+            }
+            if (!bounds[s].intersects(bottom, top))
+                return STRAIGHT; // not kept, it is refined if the view moves up or down to it
+        }
+        if (budget <= 0) {
+            deferred = true;
+            return STRAIGHT; // refined on a later frame
+        }
+
+        count = 0;
+        refine(k * step, y0, (k + 1) * step, y1, Double.POSITIVE_INFINITY, 0);
+        refined[s] = count == 0 ? STRAIGHT : Arrays.copyOf(points, count);
+        return refined[s];
+    }
+
+    /**
+     * add the points inside the interval [x0, x1] to the points of the interval
+     * being refined, in order
+     *
+     * @param spread - the height of the interval this one is half of
+     * @param depth  - the number of times the base interval was cut in half
+     */
+    private void refine(double x0, double y0, double x1, double y1, double spread, int depth) {
+        double dy = Math.abs(y1 - y0);
+        if (depth == MAX_DEPTH) {
+            // a pole, or a jump that does not shrink with its interval, is a discontinuity
+            boolean pole = Double.isInfinite(y0) || Double.isInfinite(y1);
+            if (pole || (dy > BEND * height && dy > JUMP * spread))
+                add((x0 + x1) / 2, Double.NaN);
+            return;
+        }
+
+        double xm = (x0 + x1) / 2;
+        double ym = evaluate(xm);
+        boolean split;
+        if (Double.isNaN(y0) && Double.isNaN(y1)) // outside the domain
+            split = false;
+        else if (!Double.isFinite(y0) || !Double.isFinite(ym) || !Double.isFinite(y1)) // edge of the domain or pole
+            split = true;
+        else
+            split = Math.abs(ym - (y0 + y1) / 2) > BEND * height || dy > SPREAD * height;
+
+        if (split) {
+            refine(x0, y0, xm, ym, dy, depth + 1);
+            add(xm, ym);
+            refine(xm, ym, x1, y1, dy, depth + 1);
+        } else
+            add(xm, ym);
+    }
+
+    /**
+     * add a point to the points of the interval being refined
+     */
+    private void add(double x, double y) {
+        points[count++] = (float) x;
+        points[count++] = (float) y; // beyond the range of floats is infinite, clamped later
+    }
+
+    /**
+     * evaluate the equation at x for the refinement
+     */
+    private double evaluate(double x) {
+        budget--;
+        if (xSlot >= 0)
+            frame[xSlot] = x;
+        return compiled.eval(frame);
+    }
+
+    /**
+     * @return the index of sample k in the ring
+     */
+    private int slot(long k) {
+        return (int) Math.floorMod(k, (long) ring.length);
+    }
+
+    /**
+     * compare the parameter values with the ones the samples were computed with
+     * and keep the new ones
+     *
+     * @return true if a parameter changed
+     */
+    private boolean parametersChanged(HashMap<Character, Double> varValues) {
+        boolean changed = false;
+        for (int i = 0; i < parameters.length; i++) {
+            if (i == xSlot)
+                continue;
+            Double value = varValues.get(layout.symbolAt(i));
+            double v = value == null ? 0d : value;
+            if (Double.doubleToLongBits(v) != Double.doubleToLongBits(parameters[i])) {
+                parameters[i] = v;
+                frame[i] = v;
+                box.set(i, v, v);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * evaluate the samples [from, to) in one batch and put them in the ring, the
+     * refinements and bounds of the intervals touching them are dropped
+     */
+    private void evaluate(long from, long to, HashMap<Character, Double> varValues) {
+        int n = (int) (to - from);
+        prepareBatch(n, varValues);
+        if (xSlot >= 0) {
+            double[] xs = columns[xSlot];
+            for (int i = 0; i < n; i++)
+                xs[i] = (from + i) * step;
+        }
+        equation.valuesAt(columns, n, values);
+
+        for (int i = 0; i < n; i++)
+            ring[slot(from + i)] = values[i];
+        for (long k = from - 1; k < to; k++) {
+            refined[slot(k)] = null;
+            bounds[slot(k)] = null;
+        }
+    }
+}
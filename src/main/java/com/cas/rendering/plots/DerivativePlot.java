@@ -0,0 +1,127 @@
+package com.cas.rendering.plots;
+
+import com.cas.core.Equation;
+import com.cas.rendering.util.Grid;
+
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+/**
+ * the plot of a partial derivative of a function, only differentiated the
+ * first time it is asked for. The derivative is computed on the common fork
+ * join pool, and its plot is created by the render thread once it is ready.
+ * Adding a function costs nothing for its derivatives until they are shown.
+ * Must only be used by the render thread
+ *
+ * @param <P> - type of the plot
+ * @author Abd-El-Aziz Zayed
+ */
+public final class DerivativePlot<P extends Plot> {
+
+    private final Equation function; // the function to differentiate
+    private final char var; // the variable to differentiate with respect to
+    private final String name; // the name of the derivative in its latex, like y_x
+    private final BiFunction<Equation, String, P> plotter; // creates the plot of the derivative from its latex
+    private Future<Equation> derivative; // null until requested
+    private P plot; // null until the derivative is ready
+    private Throwable failure; // why the function has no derivative, null if it has one or it is not known yet
+
+    /**
+     * constructor, nothing is differentiated yet
+     *
+     * @param function - the function to differentiate
+     * @param var      - the variable to differentiate with respect to
+     * @param name     - the name of the derivative in its latex, like y_x
+     * @param plotter  - creates the plot of the derivative from its latex
+     */
+    DerivativePlot(Equation function, char var, String name, BiFunction<Equation, String, P> plotter) {
+        this.function = function;
+        this.var = var;
+        this.name = name;
+        this.plotter = plotter;
+    }
+
+    /**
+     * start computing the derivative, if not started yet
+     */
+    public void request() {
+        if (derivative == null)
+            derivative = CompletableFuture.supplyAsync(() -> function.derivative(var));
+    }
+
+    /**
+     * @return true if the derivative was requested
+     */
+    public boolean isRequested() {
+        return derivative != null;
+    }
+
+    /**
+     * @return true if the function could not be differentiated
+     */
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    /**
+     * @return why the function could not be differentiated, like "Cannot
+     * differentiate modulus", null if it was not
+     */
+    public String getFailureMessage() {
+        if (failure == null)
+            return null;
+        return failure.getMessage() != null ? failure.getMessage() : failure.getClass().getSimpleName();
+    }
+
+    /**
+     * @return the variable the derivative is with respect to
+     */
+    public char getVariable() {
+        return var;
+    }
+
+    /**
+     * get the plot of the derivative, requests the derivative the first time
+     *
+     * @return the plot, null while the derivative is computed or if it failed
+     */
+    public P getPlot() {
+        request();
+        if (plot == null && failure == null && derivative.isDone()) {
+            try {
+                Equation der = derivative.get();
+                plot = plotter.apply(der, name + " = " + der.toLatex());
+            } catch (ExecutionException e) {
+                failure = e.getCause();
+                failure.printStackTrace();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return plot;
+    }
+
+    /**
+     * update the plot, if it was created
+     *
+     * @param grid      - coordinate system to render according to
+     * @param varValues - value of all the parameters
+     */
+    public void update(Grid grid, HashMap<Character, Double> varValues) {
+        if (plot != null)
+            plot.update(grid, varValues);
+    }
+
+    /**
+     * cleanup the GPU memory when not needed anymore
+     */
+    public void cleanup() {
+        if (derivative != null)
+            derivative.cancel(false);
+        if (plot != null)
+            plot.cleanup();
+    }
+}
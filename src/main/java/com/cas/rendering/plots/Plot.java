@@ -1,39 +1,47 @@
 package com.cas.rendering.plots;
 
 import com.cas.core.Equation;
+import com.cas.rendering.core.RenderBackend;
+import com.cas.rendering.core.Renderer;
+import com.cas.rendering.gui.LatexTexture;
 import com.cas.rendering.gui.Texture;
 import com.cas.rendering.util.Grid;
 import net.jafama.FastMath;
-import org.lwjgl.opengl.GL15;
 
-import java.awt.image.BufferedImage;
+import java.nio.FloatBuffer;
 import java.util.HashMap;
 
 /**
  * This class represents a plot and all the data common between all types of
- * plots
+ * plots. The vertices are sampled on worker threads, the render thread only
+ * uploads them to the GPU when a new sample is ready and draws the latest one
  *
  * @author Abd-El-Aziz Zayed
  */
 public abstract class Plot {
 
     private final float[] color; // the color of the plot
-    private final Texture texture; // the texture for the equation of the plot
+    private final LatexTexture label; // the texture for the equation of the plot
     private final int vertexCount; // the number of coorfinates each vertex
     protected Equation equation; // the function of the plot
     protected boolean visible; // if the plot is visible
+    protected final RenderBackend backend; // draws the plot
     protected int vbo; // the GPU buffer to carry the data
+    private final VertexStage stage; // the vertices, sampled in the background
+    private boolean uploaded; // the latest vertices of the stage are in the GPU buffer
 
     /*
      * constructor
      */
-    public Plot(Equation eq, BufferedImage image, int vertexCount, boolean visible) {
+    public Plot(Equation eq, String latex, int vertexCount, boolean visible, Sampler sampler) {
         equation = eq;
+        backend = Renderer.getBackend();
+        stage = new VertexStage(sampler);
         color = new float[]{(float) FastMath.random(), (float) FastMath.random(), (float) FastMath.random(), 1f};
-        texture = new Texture(image);
+        label = new LatexTexture(latex);
         this.vertexCount = vertexCount;
         this.visible = visible;
-        vbo = GL15.glGenBuffers();
+        vbo = backend.createBuffer();
     }
 
     /**
@@ -65,43 +73,64 @@ public abstract class Plot {
     }
 
     /**
-     * @return the texture
+     * @return the texture of the equation, a placeholder until it is typeset
      */
     public Texture getTexture() {
-        return texture;
+        return label.getTexture();
     }
 
     /**
      * cleanup the memory allocated by OpenGL
      */
     public void cleanup() {
-        GL15.glDeleteBuffers(vbo);
-        texture.cleanup();
+        stage.stop();
+        backend.deleteBuffer(vbo);
+        label.cleanup();
     }
 
     /**
      * preparation to render the plot and unbinding afterwards
      */
     public void render() {
-        GL15.glEnableClientState(GL15.GL_VERTEX_ARRAY);
-        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
-        GL15.glVertexPointer(vertexCount, GL15.GL_FLOAT, 0, 0);
-        GL15.glColor4d(color[0], color[1], color[2], color[3]);
+        backend.bindBuffer(vbo);
+        if (!uploaded) {
+            upload(stage.getVertices());
+            uploaded = true;
+        }
+        backend.enableVertices(vertexCount);
+        backend.color(color[0], color[1], color[2], color[3]);
         drawModel();
-        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
-        GL15.glDisableClientState(GL15.GL_VERTEX_ARRAY);
+        backend.bindBuffer(0);
+        backend.disableVertices();
     }
 
+    /**
+     * copy new vertices to the GPU buffer, which is bound
+     *
+     * @param vertices - the vertices of the latest sample, flipped
+     */
+    protected abstract void upload(FloatBuffer vertices);
+
     /**
      * render the plot model
      */
     protected abstract void drawModel();
 
     /**
-     * update the date for the plot
+     * request the data of the plot for the given view and render the latest data
+     * sampled, without waiting for the request
      *
      * @param grid      - The coordinates system to generate data from
      * @param varValues - the parameter values
      */
-    public abstract void update(Grid grid, HashMap<Character, Double> varValues);
+    public void update(Grid grid, HashMap<Character, Double> varValues) {
+        if (!visible)
+            return;
+
+        stage.request(grid, varValues);
+        if (stage.swap())
+            uploaded = false;
+        if (stage.isFilled())
+            render();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.cas.rendering.plots;
+
+import com.cas.core.Equation;
+import com.cas.core.VariableLayout;
+import com.cas.rendering.util.Grid;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * computes the vertices of a plot without any OpenGL call, the plots copy the
+ * vertices to the GPU afterwards. Sampling can then run and be measured without
+ * a window or a GL context
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+public abstract class Sampler {
+
+    protected final Equation equation; // the function to sample
+    protected final VariableLayout layout; // the slots of the variables of the equation
+    protected final int resolution; // the number of steps along each axis
+    protected double[][] columns; // the values of the variables for every sample of a batch
+    protected double[] values; // the values of the equation for every sample of a batch
+    private volatile boolean cancelled; // the sample being computed is stale
+
+    /*
+     * constructor
+     */
+    protected Sampler(Equation eq, int resolution) {
+        if (resolution <= 0)
+            throw new IllegalArgumentException("Resolution must be positive: " + resolution);
+
+        equation = eq;
+        layout = eq.getLayout();
+        this.resolution = resolution;
+    }
+
+    public int getResolution() {
+        return resolution;
+    }
+
+    /**
+     * @return the maximum number of floats put in the buffer by {@link #sample}
+     */
+    public abstract int getFloatCount();
+
+    /**
+     * compute the vertices of the plot and put them in the buffer, the buffer is
+     * not flipped. Returns early, with the buffer incomplete, once the sample is
+     * cancelled
+     *
+     * @param grid      - The coordinates system to generate data from
+     * @param varValues - the parameter values
+     * @param buffer    - where to put the vertices, needs at least
+     *                  {@link #getFloatCount()} floats remaining
+     */
+    public abstract void sample(Grid grid, HashMap<Character, Double> varValues, FloatBuffer buffer);
+
+    /**
+     * @return true if the last sample left work for a later sample of the same
+     * view, like refinement put off once its budget was spent
+     */
+    public boolean hasPendingWork() {
+        return false;
+    }
+
+    /**
+     * @param cancelled - true to make the sample being computed return early,
+     *                  false before starting a new one
+     */
+    void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * @return true if the sample being computed is stale, checked between
+     * batches so a stale sample stops early
+     */
+    protected boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * make sure the batch arrays can hold the given number of samples and fill
+     * the columns of the parameters with their values
+     *
+     * @param n         - number of samples in the batch
+     * @param varValues - the parameter values
+     */
+    protected void prepareBatch(int n, HashMap<Character, Double> varValues) {
+        if (values == null || values.length < n) {
+            columns = new double[layout.size()][n];
+            values = new double[n];
+        }
+        fillParameters(columns, n, varValues);
+    }
+
+    /**
+     * fill the columns of the parameters with their values, the columns of the
+     * other variables are left as they are
+     *
+     * @param columns   - the columns of a batch
+     * @param n         - number of samples in the batch
+     * @param varValues - the parameter values
+     */
+    protected void fillParameters(double[][] columns, int n, HashMap<Character, Double> varValues) {
+        for (int i = 0; i < layout.size(); i++) {
+            Double value = varValues.get(layout.symbolAt(i));
+            if (value != null)
+                Arrays.fill(columns[i], 0, n, value);
+        }
+    }
+}
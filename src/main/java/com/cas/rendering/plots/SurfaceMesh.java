@@ -0,0 +1,87 @@
+package com.cas.rendering.plots;
+
+import org.lwjgl.BufferUtils;
+
+import java.nio.IntBuffer;
+import java.util.HashMap;
+
+/**
+ * the mesh of a surface: a grid of (resolution + 1)^2 shared vertices, row
+ * after row, and the triangles joining them given by indices. Every vertex is
+ * stored once instead of once per triangle strip it belongs to, and the whole
+ * surface is drawn in one call. The indices only depend on the resolution, so
+ * they are generated once per resolution and shared by all the surfaces
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+public final class SurfaceMesh {
+
+    static final HashMap<Integer, IntBuffer> INDICES = new HashMap<>(); // indices of each resolution, guarded by itself
+
+    private SurfaceMesh() {
+    }
+
+    /**
+     * @param resolution - the number of steps along each axis
+     * @return the number of vertices of the grid
+     */
+    public static int getVertexCount(int resolution) {
+        return (resolution + 1) * (resolution + 1);
+    }
+
+    /**
+     * @param resolution - the number of steps along each axis
+     * @return the number of indices, 2 triangles for every cell of the grid
+     */
+    public static int getIndexCount(int resolution) {
+        return resolution * resolution * 6;
+    }
+
+    /**
+     * @param i    - column of the vertex, along x
+     * @param j    - row of the vertex, along y
+     * @param size - number of vertices in a row
+     * @return the index of the vertex in the grid
+     */
+    public static int vertexIndex(int i, int j, int size) {
+        return j * size + i;
+    }
+
+    /**
+     * @param resolution - the number of steps along each axis
+     * @return the indices of the triangles of the grid, ready to be read from the
+     * position to the limit. The buffer is shared and must not be written to
+     */
+    public static IntBuffer getIndices(int resolution) {
+        IntBuffer indices;
+        synchronized (INDICES) {
+            indices = INDICES.computeIfAbsent(resolution, SurfaceMesh::generateIndices);
+        }
+        return indices.duplicate(); // own position and limit
+    }
+
+    /**
+     * @return the indices of the triangles of the grid, cell after cell. The
+     * diagonal of a cell goes from the next row to the next column, like the
+     * triangle strips along x the surfaces used to be drawn with
+     */
+    private static IntBuffer generateIndices(int resolution) {
+        if (resolution <= 0)
+            throw new IllegalArgumentException("Resolution must be positive: " + resolution);
+
+        int size = resolution + 1;
+        IntBuffer indices = BufferUtils.createIntBuffer(getIndexCount(resolution));
+        for (int j = 0; j < resolution; j++) {
+            for (int i = 0; i < resolution; i++) {
+                int corner = vertexIndex(i, j, size);
+                int up = corner + size; // (i, j + 1)
+                int right = corner + 1; // (i + 1, j)
+
+                indices.put(corner).put(up).put(right);
+                indices.put(right).put(up).put(up + 1);
+            }
+        }
+        indices.flip();
+        return indices;
+    }
+}
@@ -0,0 +1,108 @@
+package com.cas.rendering.plots;
+
+import com.cas.core.Equation;
+import com.cas.rendering.util.Grid;
+
+import java.nio.FloatBuffer;
+import java.util.HashMap;
+import java.util.stream.IntStream;
+
+/**
+ * computes the (x, y, z) vertices of the grid of a surface, row after row along
+ * y, every point of the (resolution + 1)^2 grid once. The triangles joining
+ * them are given by the indices of {@link SurfaceMesh}. The rows are evaluated
+ * in blocks on the common fork join pool, every block with its own batch
+ * columns
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+public class SurfaceSampler extends Sampler {
+
+    private static final int ROWS_PER_BLOCK = 8; // rows of the grid evaluated by one task
+
+    private final int xSlot, ySlot; // slots of x and y in the columns
+    private final int size; // points along each side of the grid
+    private final double[] z; // the z value of every point of the grid, row after row
+    private final Block[] blocks; // blocks of rows, evaluated in parallel
+
+    public SurfaceSampler(Equation eq, int resolution) {
+        super(eq, resolution);
+        xSlot = layout.slotOf('x');
+        ySlot = layout.slotOf('y');
+        size = resolution + 1;
+        z = new double[size * size];
+
+        blocks = new Block[(size + ROWS_PER_BLOCK - 1) / ROWS_PER_BLOCK];
+        for (int b = 0; b < blocks.length; b++) {
+            int first = b * ROWS_PER_BLOCK;
+            blocks[b] = new Block(first, Math.min(first + ROWS_PER_BLOCK, size));
+        }
+    }
+
+    @Override
+    public int getFloatCount() {
+        return SurfaceMesh.getVertexCount(resolution) * 3;
+    }
+
+    @Override
+    public void sample(Grid grid, HashMap<Character, Double> varValues, FloatBuffer buffer) {
+        double xmin = grid.getX().getMin();
+        double ymin = grid.getY().getMin();
+        double dx = grid.getX().getLength() / resolution;
+        double dy = grid.getY().getLength() / resolution;
+
+        IntStream.range(0, blocks.length).parallel().forEach(b -> blocks[b].evaluate(xmin, ymin, dx, dy, varValues));
+        if (isCancelled())
+            return;
+
+        for (int j = 0; j < size; j++) {
+            float y = (float) (ymin + j * dy);
+            for (int i = 0; i < size; i++) {
+                buffer.put((float) (xmin + i * dx));
+                buffer.put(y);
+                buffer.put((float) z[SurfaceMesh.vertexIndex(i, j, size)]);
+            }
+        }
+    }
+
+    /**
+     * a block of consecutive rows of the grid, evaluated in one batch
+     */
+    private final class Block {
+
+        private final int first, last; // first row and the row after the last one
+        private final double[][] columns; // the values of the variables for every point of the block
+        private final double[] values; // the z values of the block
+
+        Block(int first, int last) {
+            this.first = first;
+            this.last = last;
+            int n = (last - first) * size;
+            columns = new double[layout.size()][n];
+            values = new double[n];
+        }
+
+        void evaluate(double xmin, double ymin, double dx, double dy, HashMap<Character, Double> varValues) {
+            if (isCancelled())
+                return;
+
+            int n = values.length;
+            fillParameters(columns, n, varValues);
+
+            double[] xs = xSlot >= 0 ? columns[xSlot] : null;
+            double[] ys = ySlot >= 0 ? columns[ySlot] : null;
+            for (int j = first, k = 0; j < last; j++) {
+                double y = ymin + j * dy;
+                for (int i = 0; i < size; i++, k++) {
+                    if (xs != null)
+                        xs[k] = xmin + i * dx;
+                    if (ys != null)
+                        ys[k] = y;
+                }
+            }
+
+            equation.valuesAt(columns, n, values);
+            System.arraycopy(values, 0, z, first * size, n);
+        }
+    }
+}
@@ -1,10 +1,8 @@
 package com.cas.rendering.plots;
 
 import com.cas.core.Equation;
-import com.cas.rendering.gui.LatexRenderer;
 import com.cas.rendering.util.Grid;
 
-import java.awt.image.BufferedImage;
 import java.util.HashMap;
 
 /**
@@ -19,8 +17,8 @@ public class SurfaceTrio {
      * The function and it's derivatives
      */
     private final Surface function;
-    private Surface xDerivative;
-    private Surface yDerivative;
+    private final DerivativePlot<Surface> xDerivative; // only computed when shown
+    private final DerivativePlot<Surface> yDerivative;
 
     public SurfaceTrio(Equation eq) {
         String latex = "z = " + eq.toLatex();
@@ -28,34 +26,9 @@ public class SurfaceTrio {
         Equation simplified = eq.simplified();
         System.out.println("simplifying: " + simplified);
 
-        BufferedImage latexImage = LatexRenderer.toImage(latex);
-        System.out.println("latexing image");
-
-        function = new Surface(simplified, latexImage, true);
-
-        System.out.println("deriving");
-
-        try {
-            Equation xDer = simplified.derivative('x');
-            latex = "z_x = " + xDer.toLatex();
-            xDerivative = new Surface(xDer, LatexRenderer.toImage(latex), false);
-        } catch (Exception e) {
-            e.printStackTrace();
-            xDerivative = null;
-        }
-
-        System.out.println("got x der");
-
-        try {
-            Equation yDer = simplified.derivative('y');
-            latex = "z_y = " + yDer.toLatex();
-            yDerivative = new Surface(yDer, LatexRenderer.toImage(latex), false);
-        } catch (Exception e) {
-            e.printStackTrace();
-            yDerivative = null;
-        }
-
-        System.out.println("got y der");
+        function = new Surface(simplified, latex, true);
+        xDerivative = new DerivativePlot<>(simplified, 'x', "z_x", (der, derLatex) -> new Surface(der, derLatex, true));
+        yDerivative = new DerivativePlot<>(simplified, 'y', "z_y", (der, derLatex) -> new Surface(der, derLatex, true));
     }
 
     /**
@@ -66,10 +39,8 @@ public class SurfaceTrio {
      */
     public void update(Grid grid, HashMap<Character, Double> varValues) {
         function.update(grid, varValues);
-        if (xDerivative != null)
-            xDerivative.update(grid, varValues);
-        if (yDerivative != null)
-            yDerivative.update(grid, varValues);
+        xDerivative.update(grid, varValues);
+        yDerivative.update(grid, varValues);
     }
 
     /**
@@ -82,14 +53,14 @@ public class SurfaceTrio {
     /**
      * @return the xDerivative
      */
-    public Surface getxDerivative() {
+    public DerivativePlot<Surface> getxDerivative() {
         return xDerivative;
     }
 
     /**
      * @return the yDerivative
      */
-    public Surface getyDerivative() {
+    public DerivativePlot<Surface> getyDerivative() {
         return yDerivative;
     }
 
@@ -98,9 +69,7 @@ public class SurfaceTrio {
      */
     public void cleanup() {
         function.cleanup();
-        if (xDerivative != null)
-            xDerivative.cleanup();
-        if (yDerivative != null)
-            yDerivative.cleanup();
+        xDerivative.cleanup();
+        yDerivative.cleanup();
     }
 }
\ No newline at end of file
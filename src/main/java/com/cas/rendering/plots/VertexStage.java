@@ -0,0 +1,197 @@
+package com.cas.rendering.plots;
+
+import com.cas.rendering.util.Grid;
+import org.lwjgl.BufferUtils;
+
+import java.nio.FloatBuffer;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * samples a plot on worker threads so the render thread never waits for an
+ * evaluation. The vertices are double buffered in direct buffers: the render
+ * thread reads the front buffer while a worker fills the back one, and the two
+ * are swapped once the back buffer holds a complete sample.
+ * <p>
+ * Every frame the render thread requests a sample of the current view and
+ * parameters. A plot has at most one job running, the latest request waits for
+ * it and replaces any older request that did not start yet, so the work never
+ * piles up however slow the plot is to sample. A running job made stale by a
+ * new request is cancelled, unless the job before it was cancelled too, so a
+ * plot that keeps moving still shows every other sample. A sample that left
+ * work for later, like a curve not fully refined, is requested again at the
+ * swap until the sampler has nothing left to do, so a still view keeps
+ * getting refined.
+ * <p>
+ * No worker waits for the render thread: a worker leaves once the back buffer
+ * holds a sample not swapped yet, and the swap starts a worker again for the
+ * pending request. A hidden plot, which is neither requested nor swapped,
+ * holds no worker
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+final class VertexStage {
+
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool( //
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1), task -> {
+                Thread worker = new Thread(task, "plot-sampler");
+                worker.setDaemon(true);
+                return worker;
+            });
+
+    private final Sampler sampler; // only used by one worker at a time
+    private FloatBuffer front; // vertices read by the render thread
+    private FloatBuffer back; // vertices written by a worker
+    private boolean filled; // the front buffer holds a sample
+
+    // guarded by this
+    private Grid requestedGrid; // view of the last request
+    private HashMap<Character, Double> requestedValues; // parameters of the last request
+    private Snapshot pending; // request waiting for a worker, null if none
+    private boolean running; // a worker is sampling this plot
+    private boolean ready; // the back buffer holds a complete sample not swapped yet
+    private boolean stopped; // the plot was cleaned up
+    private boolean cancellable = true; // the running job can be cancelled, false after a cancelled job
+    private boolean unfinished; // the sample not swapped yet left work for a later sample of the same view
+
+    /**
+     * constructor
+     *
+     * @param sampler - computes the vertices of the plot
+     */
+    VertexStage(Sampler sampler) {
+        this.sampler = sampler;
+        front = BufferUtils.createFloatBuffer(sampler.getFloatCount());
+        back = BufferUtils.createFloatBuffer(sampler.getFloatCount());
+    }
+
+    /**
+     * request a sample of the plot in the given view, unless it is the view and
+     * the parameters of the last request. Called by the render thread, returns
+     * immediately
+     *
+     * @param grid      - The coordinates system to generate data from
+     * @param varValues - the parameter values
+     */
+    synchronized void request(Grid grid, HashMap<Character, Double> varValues) {
+        if (stopped || (requestedGrid != null && requestedGrid.sameRanges(grid) && requestedValues.equals(varValues)))
+            return;
+
+        requestedGrid = new Grid(grid);
+        requestedValues = new HashMap<>(varValues);
+        pending = new Snapshot(requestedGrid, requestedValues); // an older pending request is dropped
+        if (running) {
+            if (cancellable)
+                sampler.setCancelled(true); // the running job is stale
+        } else if (!ready) // otherwise the swap starts the worker
+            start();
+    }
+
+    /**
+     * start a worker for the pending request
+     */
+    private void start() {
+        running = true;
+        WORKERS.execute(this::work);
+    }
+
+    /**
+     * swap the buffers if a worker completed a sample since the last swap, and
+     * request the same view again if that sample left work for later. Called by the render thread, returns immediately
+     *
+     * @return true if the front buffer holds new vertices
+     */
+    synchronized boolean swap() {
+        if (!ready)
+            return false;
+
+        FloatBuffer swapped = front;
+        front = back;
+        back = swapped;
+        ready = false;
+        filled = true;
+        if (pending == null && unfinished && !stopped) // sample the same view again to finish the work
+            pending = new Snapshot(requestedGrid, requestedValues);
+        if (pending != null && !running && !stopped) // the back buffer is free again
+            start();
+        return true;
+    }
+
+    /**
+     * @return the vertices of the latest sample, flipped, only read by the render
+     * thread
+     */
+    FloatBuffer getVertices() {
+        return front;
+    }
+
+    /**
+     * @return true if a sample was swapped in the front buffer
+     */
+    boolean isFilled() {
+        return filled;
+    }
+
+    /**
+     * drop the pending request and accept no other one, the running job is
+     * cancelled and never swapped in
+     */
+    synchronized void stop() {
+        stopped = true;
+        pending = null;
+        sampler.setCancelled(true);
+    }
+
+    /**
+     * sample the pending requests until there is none left, on a worker
+     */
+    private void work() {
+        while (true) {
+            Snapshot snapshot;
+            FloatBuffer target;
+            synchronized (this) {
+                // nothing to do, or the previous sample was not swapped in yet and the swap restarts a worker
+                if (pending == null || ready || stopped) {
+                    running = false;
+                    return;
+                }
+
+                snapshot = pending; // the latest request, the ones before it are stale
+                pending = null;
+                sampler.setCancelled(false);
+                target = back;
+            }
+
+            boolean sampled = false;
+            try {
+                target.clear();
+                sampler.sample(snapshot.grid, snapshot.values, target);
+                target.flip();
+                sampled = true;
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+
+            synchronized (this) {
+                boolean cancelled = sampler.isCancelled();
+                cancellable = !cancelled;
+                ready = sampled && !cancelled;
+                unfinished = ready && sampler.hasPendingWork();
+            }
+        }
+    }
+
+    /**
+     * the view and the parameters of a request, neither changes once requested
+     */
+    private static final class Snapshot {
+        private final Grid grid;
+        private final HashMap<Character, Double> values;
+
+        Snapshot(Grid grid, HashMap<Character, Double> values) {
+            this.grid = grid;
+            this.values = values;
+        }
+    }
+}
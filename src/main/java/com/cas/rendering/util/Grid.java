@@ -1,6 +1,7 @@
 package com.cas.rendering.util;
 
-import org.lwjgl.opengl.GL11;
+import com.cas.rendering.core.RenderBackend;
+import com.cas.rendering.core.Renderer;
 
 /**
  * This class represents the coordinate system in which we draw the plots.
@@ -26,6 +27,17 @@ public class Grid {
         z = new Range(zmin, zmax);
     }
 
+    /**
+     * copy constructor, the copy does not change with the given grid
+     *
+     * @param grid - the grid to copy
+     */
+    public Grid(Grid grid) {
+        this(grid.x.getMin(), grid.x.getMax(), grid.y.getMin(), grid.y.getMax(), grid.z.getMin(), grid.z.getMax());
+        xRotation = grid.xRotation;
+        zRotation = grid.zRotation;
+    }
+
     /**
      * @return the x
      */
@@ -88,6 +100,17 @@ public class Grid {
         this.zRotation = zRotation;
     }
 
+    /**
+     * @param grid - another grid
+     * @return true if both grids have the same x, y and z ranges, the plots
+     * sampled in one of them are then valid in the other
+     */
+    public boolean sameRanges(Grid grid) {
+        return x.getMin() == grid.x.getMin() && x.getMax() == grid.x.getMax() //
+                && y.getMin() == grid.y.getMin() && y.getMax() == grid.y.getMax() //
+                && z.getMin() == grid.z.getMin() && z.getMax() == grid.z.getMax();
+    }
+
     /**
      * translate the grid
      *
@@ -136,25 +159,17 @@ public class Grid {
      */
     public void render() {
         float scale = 1.25f;
+        RenderBackend backend = Renderer.getBackend();
 
-        GL11.glColor3f(1f, 0f, 0f);
-        GL11.glBegin(GL11.GL_LINES);
-        GL11.glVertex3d(0d, 0d, 0d);
-        GL11.glVertex3d(x.getMax() * scale, 0d, 0d);
-        GL11.glEnd();
+        backend.color(1f, 0f, 0f, 1f);
+        backend.drawLine(0d, 0d, 0d, x.getMax() * scale, 0d, 0d);
 
         // Draw y-axis in green
-        GL11.glColor3f(0f, 1f, 0f);
-        GL11.glBegin(GL11.GL_LINES);
-        GL11.glVertex3d(0d, 0d, 0d);
-        GL11.glVertex3d(0d, y.getMax() * scale, 0d);
-        GL11.glEnd();
+        backend.color(0f, 1f, 0f, 1f);
+        backend.drawLine(0d, 0d, 0d, 0d, y.getMax() * scale, 0d);
 
         // Draw z-axis in blue
-        GL11.glColor3f(0f, 0f, 1f);
-        GL11.glBegin(GL11.GL_LINES);
-        GL11.glVertex3d(0d, 0d, 0d);
-        GL11.glVertex3d(0d, 0d, z.getMax() * scale);
-        GL11.glEnd();
+        backend.color(0f, 0f, 1f, 1f);
+        backend.drawLine(0d, 0d, 0d, 0d, 0d, z.getMax() * scale);
     }
 }
\ No newline at end of file
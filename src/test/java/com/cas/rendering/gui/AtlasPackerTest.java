@@ -0,0 +1,154 @@
+package com.cas.rendering.gui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * checks the bookkeeping of the atlas packer, no GL context is needed
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+class AtlasPackerTest {
+
+    @Test
+    void randomAllocationsNeverOverlap() {
+        AtlasPacker packer = new AtlasPacker(256);
+        ArrayList<AtlasPacker.Region> live = new ArrayList<>();
+        Random random = new Random(24);
+        long area = 0;
+
+        for (int step = 0; step < 200_000; step++) {
+            if (live.isEmpty() || (live.size() < 400 && random.nextBoolean())) {
+                int width = 1 + random.nextInt(random.nextInt(8) == 0 ? 256 : 48);
+                int height = 1 + random.nextInt(random.nextInt(8) == 0 ? 256 : 48);
+                AtlasPacker.Region region = packer.allocate(width, height);
+                assertNotNull(region);
+                assertEquals(width, region.getWidth());
+                assertEquals(height, region.getHeight());
+                assertTrue(region.getX() >= 0 && region.getX() + width <= 256, region::toString);
+                assertTrue(region.getY() >= 0 && region.getY() + height <= 256, region::toString);
+                for (AtlasPacker.Region other : live)
+                    assertFalse(overlap(region, other), () -> region + " overlaps " + other);
+                live.add(region);
+                area += (long) width * height;
+            } else {
+                AtlasPacker.Region region = live.remove(random.nextInt(live.size()));
+                packer.free(region);
+                area -= (long) region.getWidth() * region.getHeight();
+            }
+            assertEquals(area, packer.getUsedArea());
+        }
+
+        for (AtlasPacker.Region region : live)
+            packer.free(region);
+        assertEquals(0, packer.getUsedArea());
+        assertEquals(0, packer.getPageCount());
+    }
+
+    @Test
+    void freeSpansOfAShelfAreMerged() {
+        for (boolean leftFirst : new boolean[]{true, false}) { // merged with the span after, then before
+            AtlasPacker packer = new AtlasPacker(100);
+            AtlasPacker.Region a = packer.allocate(30, 10);
+            AtlasPacker.Region b = packer.allocate(30, 10);
+            packer.allocate(30, 10);
+            assertEquals(0, b.getY());
+            assertEquals(30, b.getX());
+
+            packer.free(leftFirst ? a : b);
+            packer.free(leftFirst ? b : a);
+            AtlasPacker.Region wide = packer.allocate(60, 10); // only fits in the two spans merged
+            assertEquals(0, wide.getX());
+            assertEquals(0, wide.getY());
+        }
+    }
+
+    @Test
+    void emptyShelvesAreMergedAndSplit() {
+        for (boolean topFirst : new boolean[]{true, false}) { // merged with the shelf above, then below
+            AtlasPacker packer = new AtlasPacker(100);
+            AtlasPacker.Region a = packer.allocate(100, 10);
+            AtlasPacker.Region b = packer.allocate(100, 10);
+            packer.allocate(100, 20);
+            assertEquals(10, b.getY());
+
+            packer.free(topFirst ? a : b);
+            packer.free(topFirst ? b : a);
+            AtlasPacker.Region high = packer.allocate(100, 15); // in the two shelves merged, split to its height
+            assertEquals(0, high.getY());
+            AtlasPacker.Region rest = packer.allocate(100, 5); // in what is left of them
+            assertEquals(15, rest.getY());
+            assertEquals(1, packer.getPageCount());
+        }
+    }
+
+    @Test
+    void bottomShelfGivesItsSpaceBackToThePage() {
+        AtlasPacker packer = new AtlasPacker(100);
+        AtlasPacker.Region a = packer.allocate(100, 10);
+        AtlasPacker.Region b = packer.allocate(100, 10);
+        packer.free(b);
+
+        AtlasPacker.Region c = packer.allocate(100, 90); // only fits if the space of b is back
+        assertEquals(a.getPage(), c.getPage());
+        assertEquals(10, c.getY());
+        assertEquals(1, packer.getPageCount());
+    }
+
+    @Test
+    void emptyPagesAreDropped() {
+        AtlasPacker packer = new AtlasPacker(100);
+        AtlasPacker.Region a = packer.allocate(100, 100);
+        AtlasPacker.Region b = packer.allocate(10, 10); // the first page is full
+        assertNotEquals(a.getPage(), b.getPage());
+        assertEquals(2, packer.getPageCount());
+
+        assertTrue(packer.free(a));
+        assertEquals(1, packer.getPageCount());
+        AtlasPacker.Region c = packer.allocate(10, 10);
+        assertFalse(packer.free(c));
+        assertTrue(packer.free(b));
+        assertEquals(0, packer.getPageCount());
+
+        AtlasPacker.Region d = packer.allocate(10, 10);
+        assertNotEquals(a.getPage(), d.getPage()); // the ids of dropped pages are not reused
+        assertNotEquals(b.getPage(), d.getPage());
+    }
+
+    @Test
+    void oversizeRectanglesAreRejected() {
+        AtlasPacker packer = new AtlasPacker(100);
+        assertNull(packer.allocate(101, 10));
+        assertNull(packer.allocate(10, 101));
+        assertNotNull(packer.allocate(100, 100));
+        assertThrows(IllegalArgumentException.class, () -> packer.allocate(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> packer.allocate(10, -1));
+        assertThrows(IllegalArgumentException.class, () -> new AtlasPacker(0));
+    }
+
+    @Test
+    void doubleFreeThrows() {
+        AtlasPacker packer = new AtlasPacker(100);
+        AtlasPacker.Region a = packer.allocate(10, 10);
+        packer.allocate(10, 10);
+        packer.free(a);
+        assertThrows(IllegalArgumentException.class, () -> packer.free(a));
+        assertEquals(100, packer.getUsedArea());
+    }
+
+    private static boolean overlap(AtlasPacker.Region a, AtlasPacker.Region b) {
+        return a.getPage() == b.getPage()
+                && a.getX() < b.getX() + b.getWidth() && b.getX() < a.getX() + a.getWidth()
+                && a.getY() < b.getY() + b.getHeight() && b.getY() < a.getY() + a.getHeight();
+    }
+}
@@ -0,0 +1,99 @@
+package com.cas.rendering.plots;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * checks the indices of the surface mesh without a GL context
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+class SurfaceMeshTest {
+
+    @Test
+    void indexedTrianglesEqualStripTriangles() {
+        for (int resolution = 1; resolution <= 7; resolution++)
+            assertArrayEquals(stripTriangles(resolution), toArray(SurfaceMesh.getIndices(resolution)),
+                    "resolution " + resolution);
+    }
+
+    @Test
+    void indexCount() {
+        for (int resolution = 1; resolution <= 20; resolution++) {
+            IntBuffer indices = SurfaceMesh.getIndices(resolution);
+            assertEquals(SurfaceMesh.getIndexCount(resolution), indices.remaining());
+            assertEquals(resolution * resolution * 6, indices.remaining());
+
+            int vertices = SurfaceMesh.getVertexCount(resolution);
+            boolean[] used = new boolean[vertices];
+            while (indices.hasRemaining())
+                used[indices.get()] = true; // throws if an index is outside the grid
+            for (int v = 0; v < vertices; v++)
+                assertTrue(used[v], "vertex " + v + " of resolution " + resolution);
+        }
+    }
+
+    @Test
+    void indicesAreCachedPerResolution() {
+        IntBuffer first = SurfaceMesh.getIndices(9);
+        IntBuffer cached = SurfaceMesh.INDICES.get(9);
+        first.position(first.limit()); // every caller has its own position
+        IntBuffer second = SurfaceMesh.getIndices(9);
+
+        assertSame(cached, SurfaceMesh.INDICES.get(9));
+        assertNotSame(first, second);
+        assertEquals(0, second.position());
+        assertEquals(SurfaceMesh.getIndexCount(9), second.remaining());
+
+        SurfaceMesh.getIndices(10);
+        IntBuffer other = SurfaceMesh.INDICES.get(10);
+        assertNotSame(cached, other);
+        SurfaceMesh.getIndices(10);
+        assertSame(other, SurfaceMesh.INDICES.get(10));
+    }
+
+    @Test
+    void invalidResolution() {
+        assertThrows(IllegalArgumentException.class, () -> SurfaceMesh.getIndices(0));
+    }
+
+    /**
+     * @return the triangles of the triangle strips the surfaces used to be
+     * drawn with, one strip along x for every row, as GL assembles them: every
+     * other triangle has its first two vertices swapped so they all face the
+     * same way
+     */
+    private static int[] stripTriangles(int resolution) {
+        int size = resolution + 1;
+        int[] triangles = new int[SurfaceMesh.getIndexCount(resolution)];
+        int t = 0;
+        for (int j = 0; j < resolution; j++) {
+            int[] strip = new int[size * 2];
+            for (int i = 0; i < size; i++) {
+                strip[2 * i] = SurfaceMesh.vertexIndex(i, j, size);
+                strip[2 * i + 1] = SurfaceMesh.vertexIndex(i, j + 1, size);
+            }
+            for (int k = 0; k + 2 < strip.length; k++) {
+                boolean odd = k % 2 == 1;
+                triangles[t++] = strip[odd ? k + 1 : k];
+                triangles[t++] = strip[odd ? k : k + 1];
+                triangles[t++] = strip[k + 2];
+            }
+        }
+        return triangles;
+    }
+
+    private static int[] toArray(IntBuffer buffer) {
+        int[] array = new int[buffer.remaining()];
+        buffer.get(array);
+        return array;
+    }
+}
@@ -0,0 +1,392 @@
+package com.cas.core;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import net.jafama.FastMath;
+
+/**
+ * batch kernels using the SIMD lanes of the CPU through the incubating Vector
+ * API. The arithmetic kernels give the same results as the scalar kernels, the
+ * transcendental functions use polynomial approximations evaluated on whole
+ * vectors:
+ * <ul>
+ * <li>sin, cos, tan: reduction by multiples of pi/2 in three parts
+ * (Cody-Waite) then the fdlibm minimax polynomials on [-pi/4, pi/4]. Valid
+ * for |x| &lt;= 2^19, larger inputs use FastMath</li>
+ * <li>exp: reduction by multiples of ln 2 then a degree 13 Taylor polynomial
+ * on [-ln2/2, ln2/2]. Valid for |x| &lt;= 708, other inputs use FastMath</li>
+ * <li>log: split into mantissa and exponent, then the atanh series of the
+ * mantissa in [sqrt(1/2), sqrt(2)) up to degree 19. Valid for positive normal
+ * inputs, others use FastMath</li>
+ * <li>pow: x*x, x*x*x, 1/x and sqrt(x) for the common constant exponents,
+ * exp(y * log(x)) otherwise for positive x. Non positive bases use
+ * FastMath</li>
+ * </ul>
+ * Maximum errors measured against the scalar kernels, which use
+ * {@link FastMath}, over 10^7 random inputs: 2 ulp for sin and cos, 4 ulp for
+ * tan, 1 ulp for log, 32 ulp for pow with a constant exponent, 3 ulp for pow
+ * with a constant base and 99 ulp for pow of two arrays. The error of pow
+ * comes from the rounding error of y * log(x) being amplified by exp. All of
+ * this is far below what the float vertices of the plots can represent.
+ *
+ * @author Abd-El-Aziz Zayed
+ */
+final class VectorKernels implements BatchKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONG_SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private static final double ROUND = 6755399441055744.0; // 1.5 * 2^52, adding it rounds to the nearest integer
+    private static final long ROUND_BITS = Double.doubleToRawLongBits(ROUND); // the integer ends up in the low bits
+
+    /*
+     * pi/2 in three parts, the first two only have 33 significant bits so
+     * multiplying them by the quadrant is exact (fdlibm)
+     */
+    private static final double TWO_OVER_PI = 6.36619772367581382433e-01;
+    private static final double PIO2_1 = 1.57079632673412561417e+00;
+    private static final double PIO2_2 = 6.07710050630396597660e-11;
+    private static final double PIO2_3 = 2.02226624879595063154e-21;
+    private static final double TRIG_LIMIT = 524288d; // 2^19, larger inputs lose precision in the reduction
+
+    /*
+     * fdlibm minimax coefficients of sin and cos on [-pi/4, pi/4]
+     */
+    private static final double S1 = -1.66666666666666324348e-01, S2 = 8.33333333332248946124e-03,
+            S3 = -1.98412698298579493134e-04, S4 = 2.75573137070700676789e-06,
+            S5 = -2.50507602534068634195e-08, S6 = 1.58969099521155010221e-10;
+    private static final double C1 = 4.16666666666666019037e-02, C2 = -1.38888888888741095749e-03,
+            C3 = 2.48015872894767294178e-05, C4 = -2.75573143513906633035e-07,
+            C5 = 2.08757232129817482790e-09, C6 = -1.13596475577881948265e-11;
+
+    /*
+     * ln 2 in two parts, the first one has enough trailing zeros to be multiplied
+     * by any exponent exactly (fdlibm)
+     */
+    private static final double LN2_HI = 6.93147180369123816490e-01;
+    private static final double LN2_LO = 1.90821492927058770002e-10;
+    private static final double LOG2_E = 1.44269504088896338700e+00;
+    private static final double EXP_LIMIT = 708d; // larger inputs overflow or become subnormal
+    private static final double SQRT_2 = 1.41421356237309514547;
+    private static final long MANTISSA = 0x000fffffffffffffL;
+    private static final long ONE_BITS = 0x3ff0000000000000L;
+
+    @Override
+    public void add(double[] result, double[] in, int n) {
+        int i = 0;
+        for (; i < SPECIES.loopBound(n); i += LANES)
+            DoubleVector.fromArray(SPECIES, result, i).add(DoubleVector.fromArray(SPECIES, in, i)).intoArray(result, i);
+        for (; i < n; i++)
+            result[i] += in[i];
+    }
+
+    @Override
+    public void multiply(double[] result, double[] in, int n) {
+        int i = 0;
+        for (; i < SPECIES.loopBound(n); i += LANES)
+            DoubleVector.fromArray(SPECIES, result, i).mul(DoubleVector.fromArray(SPECIES, in, i)).intoArray(result, i);
+        for (; i < n; i++)
+            result[i] *= in[i];
+    }
+
+    @Override
+    public void divide(double[] result, double[] in, int n) {
+        int i = 0;
+        for (; i < SPECIES.loopBound(n); i += LANES)
+            DoubleVector.fromArray(SPECIES, result, i).div(DoubleVector.fromArray(SPECIES, in, i)).intoArray(result, i);
+        for (; i < n; i++)
+            result[i] /= in[i];
+    }
+
+    @Override
+    public void pow(double[] bases, double exponent, int n) {
+        int i = 0;
+        if (exponent == 2d) {
+            for (; i < SPECIES.loopBound(n); i += LANES) {
+                DoubleVector x = DoubleVector.fromArray(SPECIES, bases, i);
+                x.mul(x).intoArray(bases, i);
+            }
+        } else if (exponent == 3d) {
+            for (; i < SPECIES.loopBound(n); i += LANES) {
+                DoubleVector x = DoubleVector.fromArray(SPECIES, bases, i);
+                x.mul(x).mul(x).intoArray(bases, i);
+            }
+        } else if (exponent == -1d) {
+            for (; i < SPECIES.loopBound(n); i += LANES)
+                DoubleVector.broadcast(SPECIES, 1d).div(DoubleVector.fromArray(SPECIES, bases, i)).intoArray(bases, i);
+        } else if (exponent == 0.5d) {
+            for (; i < SPECIES.loopBound(n); i += LANES)
+                DoubleVector.fromArray(SPECIES, bases, i).lanewise(VectorOperators.SQRT).intoArray(bases, i);
+        } else {
+            for (; i < SPECIES.loopBound(n); i += LANES) {
+                DoubleVector x = DoubleVector.fromArray(SPECIES, bases, i);
+                DoubleVector product = log(x).mul(exponent);
+                VectorMask<Double> special = positiveNormal(x).not().or(outsideExp(product));
+                exp(product).intoArray(bases, i);
+                if (special.anyTrue())
+                    for (int lane = 0; lane < LANES; lane++)
+                        if (special.laneIsSet(lane))
+                            bases[i + lane] = FastMath.pow(x.lane(lane), exponent);
+            }
+        }
+        for (; i < n; i++)
+            bases[i] = FastMath.pow(bases[i], exponent);
+    }
+
+    @Override
+    public void pow(double base, double[] exponents, int n) {
+        if (!(base > 0d && base < Double.POSITIVE_INFINITY)) {
+            for (int i = 0; i < n; i++)
+                exponents[i] = FastMath.pow(base, exponents[i]);
+            return;
+        }
+
+        double logBase = FastMath.log(base);
+        int i = 0;
+        for (; i < SPECIES.loopBound(n); i += LANES)
+            exp(DoubleVector.fromArray(SPECIES, exponents, i).mul(logBase), exponents, i);
+        for (; i < n; i++)
+            exponents[i] = FastMath.pow(base, exponents[i]);
+    }
+
+    @Override
+    public void pow(double[] bases, double[] exponents, int n) {
+        int i = 0;
+        for (; i < SPECIES.loopBound(n); i += LANES) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, bases, i);
+            DoubleVector y = DoubleVector.fromArray(SPECIES, exponents, i);
+            DoubleVector product = log(x).mul(y);
+            VectorMask<Double> special = positiveNormal(x).not().or(outsideExp(product));
+            exp(product).intoArray(bases, i);
+            if (special.anyTrue())
+                for (int lane = 0; lane < LANES; lane++)
+                    if (special.laneIsSet(lane))
+                        bases[i + lane] = FastMath.pow(x.lane(lane), y.lane(lane));
+        }
+        for (; i < n; i++)
+            bases[i] = FastMath.pow(bases[i], exponents[i]);
+    }
+
+    @Override
+    public void log(double[] values, int n) {
+        int i = 0;
+        for (; i < SPECIES.loopBound(n); i += LANES) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, values, i);
+            VectorMask<Double> special = positiveNormal(x).not();
+            log(x).intoArray(values, i);
+            if (special.anyTrue())
+                for (int lane = 0; lane < LANES; lane++)
+                    if (special.laneIsSet(lane))
+                        values[i + lane] = FastMath.log(x.lane(lane));
+        }
+        for (; i < n; i++)
+            values[i] = FastMath.log(values[i]);
+    }
+
+    @Override
+    public void sin(double[] values, int n) {
+        int i = 0;
+        for (; i < SPECIES.loopBound(n); i += LANES) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, values, i);
+            sinCos(x, 0L).intoArray(values, i);
+            fixLargeTrig(x, values, i, 0);
+        }
+        for (; i < n; i++)
+            values[i] = FastMath.sin(values[i]);
+    }
+
+    @Override
+    public void cos(double[] values, int n) {
+        int i = 0;
+        for (; i < SPECIES.loopBound(n); i += LANES) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, values, i);
+            sinCos(x, 1L).intoArray(values, i); // cos(x) = sin(x + pi/2), one quadrant further
+            fixLargeTrig(x, values, i, 1);
+        }
+        for (; i < n; i++)
+            values[i] = FastMath.cos(values[i]);
+    }
+
+    @Override
+    public void tan(double[] values, int n) {
+        int i = 0;
+        for (; i < SPECIES.loopBound(n); i += LANES) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, values, i);
+            DoubleVector shifted = x.mul(TWO_OVER_PI).add(ROUND);
+            DoubleVector r = reduce(x, shifted.sub(ROUND));
+            VectorMask<Double> odd = quadrant(shifted, 0L).and(1L).compare(VectorOperators.NE, 0L).cast(SPECIES);
+
+            DoubleVector s = sinPolynomial(r);
+            DoubleVector c = cosPolynomial(r);
+            // tan = sin/cos in even quadrants and -cos/sin in odd ones
+            s.blend(c.neg(), odd).div(c.blend(s, odd)).intoArray(values, i);
+            fixLargeTrig(x, values, i, 2);
+        }
+        for (; i < n; i++)
+            values[i] = FastMath.tan(values[i]);
+    }
+
+    /**
+     * sine of x plus the given number of quarter turns
+     *
+     * @param x      - the inputs
+     * @param offset - number of quarter turns to add, 1 gives the cosine
+     * @return the sine of each lane
+     */
+    private static DoubleVector sinCos(DoubleVector x, long offset) {
+        DoubleVector shifted = x.mul(TWO_OVER_PI).add(ROUND);
+        DoubleVector r = reduce(x, shifted.sub(ROUND));
+        LongVector q = quadrant(shifted, offset);
+
+        VectorMask<Double> odd = q.and(1L).compare(VectorOperators.NE, 0L).cast(SPECIES);
+        DoubleVector result = sinPolynomial(r).blend(cosPolynomial(r), odd);
+
+        // negate the result in the 3rd and 4th quadrants by flipping the sign bit
+        LongVector sign = q.and(2L).lanewise(VectorOperators.LSHL, 62);
+        return result.reinterpretAsLongs().lanewise(VectorOperators.XOR, sign).reinterpretAsDoubles();
+    }
+
+    /**
+     * @return x - k * pi/2 where k is the nearest quadrant
+     */
+    private static DoubleVector reduce(DoubleVector x, DoubleVector k) {
+        return x.sub(k.mul(PIO2_1)).sub(k.mul(PIO2_2)).sub(k.mul(PIO2_3));
+    }
+
+    /**
+     * @return the quadrant (mod 4) stored in the low bits of the rounded value
+     */
+    private static LongVector quadrant(DoubleVector shifted, long offset) {
+        return shifted.reinterpretAsLongs().add(offset);
+    }
+
+    /**
+     * @return sin(r) for |r| &lt;= pi/4
+     */
+    private static DoubleVector sinPolynomial(DoubleVector r) {
+        DoubleVector z = r.mul(r);
+        DoubleVector p = z.mul(S6).add(S5).mul(z).add(S4).mul(z).add(S3).mul(z).add(S2).mul(z).add(S1);
+        return p.mul(z).mul(r).add(r);
+    }
+
+    /**
+     * @return cos(r) for |r| &lt;= pi/4
+     */
+    private static DoubleVector cosPolynomial(DoubleVector r) {
+        DoubleVector z = r.mul(r);
+        DoubleVector p = z.mul(C6).add(C5).mul(z).add(C4).mul(z).add(C3).mul(z).add(C2).mul(z).add(C1);
+        return p.mul(z).mul(z).sub(z.mul(0.5d)).add(1d);
+    }
+
+    /**
+     * recompute the lanes where the input is too big for the vector reduction
+     *
+     * @param x        - the inputs
+     * @param values   - where the results were stored
+     * @param offset   - index of the first lane in the values
+     * @param function - 0 for sin, 1 for cos and 2 for tan
+     */
+    private static void fixLargeTrig(DoubleVector x, double[] values, int offset, int function) {
+        VectorMask<Double> large = x.abs().compare(VectorOperators.GT, TRIG_LIMIT);
+        if (!large.anyTrue())
+            return;
+        for (int lane = 0; lane < LANES; lane++) {
+            if (large.laneIsSet(lane)) {
+                double in = x.lane(lane);
+                values[offset + lane] = function == 0 ? FastMath.sin(in) : function == 1 ? FastMath.cos(in) : FastMath.tan(in);
+            }
+        }
+    }
+
+    /**
+     * exp of every lane, the lanes outside of the valid range are computed with
+     * FastMath
+     */
+    private static void exp(DoubleVector x, double[] out, int offset) {
+        exp(x).intoArray(out, offset);
+        VectorMask<Double> special = outsideExp(x);
+        if (special.anyTrue())
+            for (int lane = 0; lane < LANES; lane++)
+                if (special.laneIsSet(lane))
+                    out[offset + lane] = FastMath.exp(x.lane(lane));
+    }
+
+    /**
+     * @return mask of the lanes the vector exp does not handle, NaN included
+     */
+    private static VectorMask<Double> outsideExp(DoubleVector x) {
+        return x.abs().compare(VectorOperators.LE, EXP_LIMIT).not();
+    }
+
+    /**
+     * @return e^x for |x| &lt;= 708, other lanes are undefined
+     */
+    private static DoubleVector exp(DoubleVector x) {
+        DoubleVector shifted = x.mul(LOG2_E).add(ROUND);
+        DoubleVector k = shifted.sub(ROUND);
+        LongVector exponent = shifted.reinterpretAsLongs().sub(ROUND_BITS);
+        DoubleVector r = x.sub(k.mul(LN2_HI)).sub(k.mul(LN2_LO));
+
+        // Taylor polynomial of e^r, |r| <= ln2/2
+        DoubleVector p = r.mul(1.6059043836821613e-10).add(2.08767569878681e-9)
+                .mul(r).add(2.505210838544172e-8)
+                .mul(r).add(2.755731922398589e-7)
+                .mul(r).add(2.7557319223985893e-6)
+                .mul(r).add(2.48015873015873e-5)
+                .mul(r).add(1.984126984126984e-4)
+                .mul(r).add(1.388888888888889e-3)
+                .mul(r).add(8.333333333333333e-3)
+                .mul(r).add(4.1666666666666664e-2)
+                .mul(r).add(0.16666666666666666)
+                .mul(r).add(0.5)
+                .mul(r).add(1d)
+                .mul(r).add(1d);
+
+        // multiply by 2^k by adding k to the exponent bits
+        return p.reinterpretAsLongs().add(exponent.lanewise(VectorOperators.LSHL, 52)).reinterpretAsDoubles();
+    }
+
+    /**
+     * @return ln(x) for positive normal x, other lanes are undefined
+     */
+    private static DoubleVector log(DoubleVector x) {
+        LongVector bits = x.reinterpretAsLongs();
+        LongVector exponent = bits.lanewise(VectorOperators.LSHR, 52).sub(1023L);
+        DoubleVector m = bits.and(MANTISSA).or(ONE_BITS).reinterpretAsDoubles(); // mantissa in [1, 2)
+
+        // move the mantissa to [sqrt(1/2), sqrt(2)) so the series converges quickly
+        VectorMask<Double> big = m.compare(VectorOperators.GT, SQRT_2);
+        m = m.blend(m.mul(0.5d), big);
+        exponent = exponent.add(LongVector.broadcast(LONG_SPECIES, 1L), big.cast(LONG_SPECIES));
+        DoubleVector e = (DoubleVector) exponent.convert(VectorOperators.L2D, 0);
+
+        // ln(m) = 2 * atanh(s) = 2 * (s + s^3/3 + s^5/5 + ...), s = (m - 1) / (m + 1)
+        DoubleVector s = m.sub(1d).div(m.add(1d));
+        DoubleVector z = s.mul(s);
+        DoubleVector p = z.mul(1d / 19d).add(1d / 17d)
+                .mul(z).add(1d / 15d)
+                .mul(z).add(1d / 13d)
+                .mul(z).add(1d / 11d)
+                .mul(z).add(1d / 9d)
+                .mul(z).add(1d / 7d)
+                .mul(z).add(1d / 5d)
+                .mul(z).add(1d / 3d)
+                .mul(z);
+        DoubleVector twoS = s.add(s);
+        DoubleVector logM = twoS.mul(p).add(twoS);
+
+        return e.mul(LN2_HI).add(logM.add(e.mul(LN2_LO)));
+    }
+
+    /**
+     * @return mask of the lanes that are positive, normal and finite, the only
+     * inputs the vector log handles
+     */
+    private static VectorMask<Double> positiveNormal(DoubleVector x) {
+        return x.compare(VectorOperators.GE, Double.MIN_NORMAL).and(x.compare(VectorOperators.LT, Double.POSITIVE_INFINITY));
+    }
+}